@@ -69,7 +69,6 @@ public abstract class CoreMod {
     
     // Mod memory cache for claims
     public static final Map<ServerPlayerEntity, UUID> PLAYER_LOCATIONS = Collections.synchronizedMap(new WeakHashMap<>()); // Reference of where players are
-    public static final Map<ServerPlayerEntity, UUID> PLAYER_WARP_INVITES = Collections.synchronizedMap(new WeakHashMap<>()); // Reference of warp invitations
     private static final Map<UUID, WeakReference<ClaimantPlayer>> PLAYER_CLAIM_CACHE = Collections.synchronizedMap(new HashMap<>()); // Reference from player UUID
     private static final Map<UUID, WeakReference<ClaimantTown>> TOWN_CLAIM_CACHE = Collections.synchronizedMap(new HashMap<>()); // Reference from owner UUID
     
@@ -179,11 +178,10 @@ public abstract class CoreMod {
      * Configurations
      */
     protected static boolean initDB() throws SQLException {
-        SewingMachineConfig CONFIG = SewingMachineConfig.INSTANCE;
         ArrayList<String> tables = new ArrayList<>();
         ArrayList<String> alters = new ArrayList<>();
         
-        if (( CONFIG.LOG_CHUNKS_CLAIMED.get() || CONFIG.LOG_CHUNKS_UNCLAIMED.get() ) && ( CONFIG.LOG_BLOCKS_BREAKING.get() || CONFIG.LOG_BLOCKS_PLACING.get() )) {
+        if ( EventLogger.isLoggingBlocks() ) {
             String blockUpdateEnums = getDatabaseReadyEnumerators( EventLogger.BlockAction.class );
             
             tables.add(
@@ -194,6 +192,12 @@ public abstract class CoreMod {
             );
         }
         
+        if ( EventLogger.isLoggingTransactions() ) {
+            tables.add(
+                "CREATE TABLE IF NOT EXISTS `logging_Transactions` (`shopWorld` int(11) NOT NULL, `shopX` bigint(20) NOT NULL, `shopY` bigint(20) NOT NULL, `shopZ` bigint(20) NOT NULL, `buyer` varchar(36) NOT NULL, `seller` varchar(36) NOT NULL, `item` varchar(255) NOT NULL, `itemCount` int(11) NOT NULL, `price` int(11) NOT NULL, `transferredAt` datetime NOT NULL, KEY `item` (`item`, `transferredAt`)) ENGINE=InnoDB DEFAULT CHARSET=latin1;"
+            );
+        }
+        
         for ( String table : tables ) {
             String[] expl = table.split("`", 3);
             
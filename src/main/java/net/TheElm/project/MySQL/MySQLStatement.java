@@ -34,6 +34,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.UUID;
 
 public class MySQLStatement implements AutoCloseable {
@@ -83,6 +84,9 @@ public class MySQLStatement implements AutoCloseable {
     public MySQLStatement addPrepared( @NotNull Enum e ) {
         return this.addPrepared( e.name() );
     }
+    public MySQLStatement addPrepared( @Nullable Timestamp timestamp ) {
+        return this.addPrepared( (Object) timestamp );
+    }
     
     public boolean addBatch() throws SQLException {
         if ( !this.batched )
@@ -29,6 +29,7 @@ import com.google.gson.GsonBuilder;
 import net.TheElm.project.commands.AdminCommands;
 import net.TheElm.project.commands.ChatroomCommands;
 import net.TheElm.project.commands.ClaimCommand;
+import net.TheElm.project.commands.DeathChestCommand;
 import net.TheElm.project.commands.GameModesCommand;
 import net.TheElm.project.commands.HoldingCommand;
 import net.TheElm.project.commands.LoggingCommand;
@@ -43,12 +44,15 @@ import net.TheElm.project.commands.SpawnerCommand;
 import net.TheElm.project.commands.TeleportsCommand;
 import net.TheElm.project.commands.WaystoneCommand;
 import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.protections.ChatFormatter;
 import net.TheElm.project.protections.events.BlockBreak;
 import net.TheElm.project.protections.events.BlockInteraction;
 import net.TheElm.project.protections.events.EntityAttack;
 import net.TheElm.project.protections.events.ItemPlace;
 import net.TheElm.project.protections.events.ItemUse;
 import net.TheElm.project.protections.logging.EventLogger;
+import net.TheElm.project.protections.naming.PlayerNameResolver;
+import net.TheElm.project.utilities.OfflinePlayerUtils;
 import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.registry.CommandRegistry;
 import net.minecraft.server.MinecraftServer;
@@ -79,6 +83,7 @@ public final class ServerCore extends CoreMod implements DedicatedServerModIniti
         REGISTRY.register(false, AdminCommands::register );
         REGISTRY.register(false, ChatroomCommands::register );
         REGISTRY.register(false, ClaimCommand::register );
+        REGISTRY.register(false, DeathChestCommand::register );
         REGISTRY.register(false, GameModesCommand::register );
         REGISTRY.register(false, HoldingCommand::register );
         REGISTRY.register(false, LoggingCommand::register );
@@ -100,6 +105,16 @@ public final class ServerCore extends CoreMod implements DedicatedServerModIniti
         ItemPlace.init();
         ItemUse.init();
         
+        // Start resolving player names
+        PlayerNameResolver.start();
+        
+        // Start writing offline player data
+        OfflinePlayerUtils.start();
+        
+        // Start formatting chat
+        if (CONFIG.CHAT_MODIFY.get())
+            ChatFormatter.start();
+        
         CoreMod.logInfo( "Initializing Database." );
         try {
             // Initialize the database
@@ -93,6 +93,17 @@ public final class AdminCommands {
             );
             CoreMod.logDebug("- Registered Repair command");
         }
+        
+        // Register the LANGUAGES command
+        if (SewingMachineConfig.INSTANCE.COMMAND_RELOAD_OP_LEVEL.get() >= 0) {
+            dispatcher.register(CommandManager.literal("languages")
+                .requires(source -> source.hasPermissionLevel(SewingMachineConfig.INSTANCE.COMMAND_RELOAD_OP_LEVEL.get()))
+                .then( CommandManager.literal("reload")
+                    .executes(AdminCommands::reloadLanguages)
+                )
+            );
+            CoreMod.logDebug("- Registered Languages command");
+        }
     }
     
     private static int selfFlying(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
@@ -196,4 +207,9 @@ public final class AdminCommands {
         return -1;
     }
     
+    private static int reloadLanguages(CommandContext<ServerCommandSource> context) {
+        TranslatableServerSide.send(context.getSource(), "server.languages.reloaded", TranslatableServerSide.reload());
+        return Command.SINGLE_SUCCESS;
+    }
+    
 }
@@ -0,0 +1,157 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.exceptions.ExceptionTranslatableServerSide;
+import net.TheElm.project.interfaces.PlayerCorpse;
+import net.TheElm.project.utilities.DeathChestRegistry;
+import net.TheElm.project.utilities.DeathChestRegistry.Corpse;
+import net.TheElm.project.utilities.MessageUtils;
+import net.TheElm.project.utilities.TranslatableServerSide;
+import net.minecraft.command.arguments.EntityArgumentType;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public final class DeathChestCommand {
+    
+    private static final ExceptionTranslatableServerSide NO_CORPSES = new ExceptionTranslatableServerSide("death_chest.none");
+    private static final ExceptionTranslatableServerSide CORPSE_MISSING = new ExceptionTranslatableServerSide("death_chest.missing");
+    
+    private DeathChestCommand() {}
+    
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        if (!SewingMachineConfig.INSTANCE.DO_DEATH_CHESTS.get())
+            return;
+        
+        dispatcher.register(CommandManager.literal("deathchest")
+            .then(CommandManager.literal("list")
+                .then(CommandManager.argument("player", EntityArgumentType.player())
+                    .requires((source) -> source.hasPermissionLevel( 2 ))
+                    .executes((context) -> DeathChestCommand.list( context.getSource(), EntityArgumentType.getPlayer( context, "player" ) ))
+                )
+                .executes((context) -> DeathChestCommand.list( context.getSource(), context.getSource().getPlayer() ))
+            )
+            .then(CommandManager.literal("locate")
+                .executes(DeathChestCommand::locate)
+            )
+            .then(CommandManager.literal("restore")
+                .requires((source) -> source.hasPermissionLevel( 2 ))
+                .then(CommandManager.argument("player", EntityArgumentType.player())
+                    .executes(DeathChestCommand::restore)
+                )
+            )
+        );
+        CoreMod.logDebug( "- Registered DeathChest command" );
+    }
+    
+    private static int list(@NotNull ServerCommandSource source, @NotNull ServerPlayerEntity owner) throws CommandSyntaxException {
+        List<Corpse> corpses = DeathChestRegistry.getCorpses( owner.getUuid() );
+        if (corpses.isEmpty())
+            throw NO_CORPSES.create( source );
+        
+        Text text = TranslatableServerSide.text( source, "death_chest.list", corpses.size() ).formatted(Formatting.YELLOW);
+        for (Corpse corpse : corpses) {
+            text.append("\n- ")
+                .append(MessageUtils.blockPosToTextComponent( corpse.blockPos, corpse.dimension ));
+            
+            // Show how long until it is dropped from the registry
+            long expiresAt = corpse.getExpiresAt();
+            if (expiresAt > 0) {
+                long minutes = Math.max( 0, TimeUnit.MILLISECONDS.toMinutes( expiresAt - System.currentTimeMillis() ) );
+                text.append(" (")
+                    .append(TranslatableServerSide.text( source, "death_chest.expires", minutes ))
+                    .append(")");
+            }
+        }
+        
+        source.sendFeedback( text, false );
+        return Command.SINGLE_SUCCESS;
+    }
+    private static int locate(@NotNull CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        ServerCommandSource source = context.getSource();
+        ServerPlayerEntity player = source.getPlayer();
+        
+        List<Corpse> corpses = DeathChestRegistry.getCorpses( player.getUuid() );
+        if (corpses.isEmpty())
+            throw NO_CORPSES.create( player );
+        
+        // Get the most recent corpse
+        Corpse corpse = corpses.get( 0 );
+        player.sendMessage(TranslatableServerSide.text( player, "death_chest.locate",
+            MessageUtils.blockPosToTextComponent( corpse.blockPos, corpse.dimension )
+        ).formatted(Formatting.YELLOW));
+        
+        return Command.SINGLE_SUCCESS;
+    }
+    private static int restore(@NotNull CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        ServerCommandSource source = context.getSource();
+        ServerPlayerEntity owner = EntityArgumentType.getPlayer( context, "player" );
+        
+        List<Corpse> corpses = DeathChestRegistry.getCorpses( owner.getUuid() );
+        if (corpses.isEmpty())
+            throw NO_CORPSES.create( source );
+        
+        // Get the most recent corpse
+        Corpse corpse = corpses.get( 0 );
+        DimensionType dimension = DimensionType.byRawId( corpse.dimension );
+        
+        Entity entity = null;
+        if (dimension != null) {
+            // Load the chunk that the corpse is in and get the corpse by its UUID
+            ServerWorld world = source.getMinecraftServer().getWorld( dimension );
+            world.getChunk( corpse.blockPos.getX() >> 4, corpse.blockPos.getZ() >> 4 );
+            entity = world.getEntity( corpse.id );
+        }
+        
+        // Forget corpses that have been removed from the world
+        if (!(entity instanceof PlayerCorpse)) {
+            DeathChestRegistry.remove( corpse.id );
+            throw CORPSE_MISSING.create( source );
+        }
+        
+        ((PlayerCorpse) entity).returnItemsToPlayer( owner );
+        source.sendFeedback(TranslatableServerSide.text( source, "death_chest.restored", owner.getDisplayName() ).formatted(Formatting.YELLOW), true);
+        
+        return Command.SINGLE_SUCCESS;
+    }
+    
+}
@@ -54,14 +54,18 @@ import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.Registry;
 import net.minecraft.world.dimension.DimensionType;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public final class LoggingCommand {
@@ -109,6 +113,30 @@ public final class LoggingCommand {
             
             CoreMod.logDebug( "- Registered BlockLog command" );
         }
+        
+        if ( CONFIG.LOG_SHOP_TRANSACTIONS.get() ) {
+            dispatcher.register(CommandManager.literal("shoplog")
+                .requires((source -> source.hasPermissionLevel(CONFIG.LOG_VIEW_OP_LEVEL.get())))
+                .then(CommandManager.literal("history")
+                    .then(CommandManager.argument("item", ItemStackArgumentType.itemStack())
+                        .then(CommandManager.argument("count", IntegerArgumentType.integer(1))
+                            .executes(LoggingCommand::getShopHistoryWithCount)
+                        )
+                        .executes(LoggingCommand::getShopHistory)
+                    )
+                )
+                .then(CommandManager.literal("volume")
+                    .then(CommandManager.argument("item", ItemStackArgumentType.itemStack())
+                        .then(CommandManager.argument("days", IntegerArgumentType.integer(1))
+                            .executes(LoggingCommand::getShopVolumeWithDays)
+                        )
+                        .executes(LoggingCommand::getShopVolume)
+                    )
+                )
+            );
+            
+            CoreMod.logDebug( "- Registered ShopLog command" );
+        }
     }
     
     private static int getBlockHistory(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
@@ -141,7 +169,8 @@ public final class LoggingCommand {
                 .formatted(Formatting.YELLOW)
                 .append(MessageUtils.blockPosToTextComponent( blockPos ));
             
-            // Append our results
+            // Append our results (Player names may still be looked up)
+            List<CompletableFuture<?>> names = new ArrayList<>();
             Text text = executeSQLStatement( heading, stmt, (results -> {
                 // Get the row statement information
                 String blockTranslation = results.getString("block");
@@ -153,13 +182,13 @@ public final class LoggingCommand {
                 return new LiteralText("\n" + results.getRow() + ". ")
                     .append(new LiteralText( add ? "+ " : "- " ).append(new TranslatableText(blockTranslation)).formatted( add ? Formatting.GREEN: Formatting.RED ))
                     .append(" by ")
-                    .append(PlayerNameUtils.fetchPlayerName(updatedBy).formatted(Formatting.AQUA).styled(hoverEvent))
+                    .append(PlayerNameUtils.fetchPlayerName(updatedBy, names).formatted(Formatting.AQUA).styled(hoverEvent))
                     .append("\n     at ")
                     .append(new LiteralText(results.getTimestamp("updatedAt").toString()).formatted(Formatting.GRAY));
             }));
             
             // Send the text to the player
-            context.getSource().sendFeedback(text, false);
+            LoggingCommand.sendFeedback(context.getSource(), text, names);
             
         } catch (SQLException e) {
             // SQL statement
@@ -203,7 +232,8 @@ public final class LoggingCommand {
                 .formatted(Formatting.YELLOW)
                 .append(new TranslatableText( blockTranslation ));
             
-            // Append our results
+            // Append our results (Player names may still be looked up)
+            List<CompletableFuture<?>> names = new ArrayList<>();
             Text text = executeSQLStatement( heading, stmt, (results -> {
                 // Get the row statement information
                 boolean add = (BlockAction.valueOf(results.getString("updatedEvent")) == BlockAction.PLACE);
@@ -214,7 +244,7 @@ public final class LoggingCommand {
                 return new LiteralText("\n" + results.getRow() + ". ")
                     .append(new LiteralText( add ? "+ " : "- " ).append(new TranslatableText(blockTranslation)).formatted( add ? Formatting.GREEN: Formatting.RED ))
                     .append(" by ")
-                    .append(PlayerNameUtils.fetchPlayerName(updatedBy).formatted(Formatting.AQUA).styled(hoverEvent))
+                    .append(PlayerNameUtils.fetchPlayerName(updatedBy, names).formatted(Formatting.AQUA).styled(hoverEvent))
                     .append("\n     at ")
                     .append(MessageUtils.blockPosToTextComponent(new BlockPos(results.getInt("blockX"), results.getInt("blockY"), results.getInt("blockZ"))).formatted(Formatting.GRAY))
                     .append("\n     at ")
@@ -222,7 +252,7 @@ public final class LoggingCommand {
             }));
             
             // Send the text to the player
-            context.getSource().sendFeedback(text, false);
+            LoggingCommand.sendFeedback(context.getSource(), text, names);
             
         } catch (SQLException e) {
             // SQL statement
@@ -289,6 +319,124 @@ public final class LoggingCommand {
         return Command.SINGLE_SUCCESS;
     }
     
+    private static int getShopHistory(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        return LoggingCommand.searchShopHistory(
+            context,
+            5
+        );
+    }
+    private static int getShopHistoryWithCount(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        return LoggingCommand.searchShopHistory(
+            context,
+            IntegerArgumentType.getInteger(context, "count")
+        );
+    }
+    private static int searchShopHistory(CommandContext<ServerCommandSource> context, int limit) throws CommandSyntaxException {
+        Item item = ItemStackArgumentType.getItemStackArgument(context, "item").getItem();
+        
+        try (MySQLStatement stmt = CoreMod.getSQL().prepare("SELECT `shopX`, `shopY`, `shopZ`, `shopWorld`, `buyer`, `seller`, `itemCount`, `price`, `transferredAt` FROM `logging_Transactions` WHERE `item` = ? ORDER BY `transferredAt` DESC" + ( limit > 0 ? " LIMIT ?" : "" ) + ";")
+            .addPrepared(Registry.ITEM.getId( item ).toString())) {
+            
+            // If limit is set
+            if (limit > 0) stmt.addPrepared( limit );
+            
+            // Create the output heading
+            Text heading = new LiteralText("Shop History of ")
+                .formatted(Formatting.YELLOW)
+                .append(new TranslatableText( item.getTranslationKey() ));
+            
+            // Append our results (Player names may still be looked up)
+            List<CompletableFuture<?>> names = new ArrayList<>();
+            Text text = executeSQLStatement( heading, stmt, (results -> {
+                // Get the row statement information
+                int count = results.getInt("itemCount");
+                int price = results.getInt("price");
+                UUID buyer = UUID.fromString(results.getString("buyer"));
+                UUID seller = UUID.fromString(results.getString("seller"));
+                
+                // Add the row text to the main text
+                return new LiteralText("\n" + results.getRow() + ". ")
+                    .append(new LiteralText(NumberFormat.getInstance().format( count ) + " for $" + NumberFormat.getInstance().format( price )).formatted(Formatting.GREEN))
+                    .append(" ($" + NumberFormat.getInstance().format((double) price / count) + " each)")
+                    .append("\n     ")
+                    .append(PlayerNameUtils.fetchPlayerName(seller, names).formatted(Formatting.AQUA))
+                    .append(" to ")
+                    .append(PlayerNameUtils.fetchPlayerName(buyer, names).formatted(Formatting.AQUA))
+                    .append("\n     at ")
+                    .append(MessageUtils.blockPosToTextComponent(new BlockPos(results.getInt("shopX"), results.getInt("shopY"), results.getInt("shopZ")), results.getInt("shopWorld")).formatted(Formatting.GRAY))
+                    .append("\n     at ")
+                    .append(new LiteralText(results.getTimestamp("transferredAt").toString()).formatted(Formatting.GRAY));
+            }));
+            
+            // Send the text to the player
+            LoggingCommand.sendFeedback(context.getSource(), text, names);
+            
+        } catch (SQLException e) {
+            // SQL statement
+            CoreMod.logError( e );
+            
+        }
+        
+        return Command.SINGLE_SUCCESS;
+    }
+    
+    private static int getShopVolume(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        return LoggingCommand.searchShopVolume(
+            context,
+            7
+        );
+    }
+    private static int getShopVolumeWithDays(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        return LoggingCommand.searchShopVolume(
+            context,
+            IntegerArgumentType.getInteger(context, "days")
+        );
+    }
+    private static int searchShopVolume(CommandContext<ServerCommandSource> context, int days) throws CommandSyntaxException {
+        Item item = ItemStackArgumentType.getItemStackArgument(context, "item").getItem();
+        
+        try (MySQLStatement stmt = CoreMod.getSQL().prepare("SELECT DATE(`transferredAt`) AS `day`, COUNT(*) AS `trades`, SUM(`itemCount`) AS `volume`, SUM(`price`) AS `total` FROM `logging_Transactions` WHERE `item` = ? AND `transferredAt` >= (NOW() - INTERVAL ? DAY) GROUP BY DATE(`transferredAt`) ORDER BY `day` DESC;")
+            .addPrepared(Registry.ITEM.getId( item ).toString())
+            .addPrepared(days)) {
+            
+            // Create the output heading
+            Text heading = new LiteralText("Daily Shop Volume of ")
+                .formatted(Formatting.YELLOW)
+                .append(new TranslatableText( item.getTranslationKey() ));
+            
+            // Append our results
+            Text text = executeSQLStatement( heading, stmt, (results -> {
+                // Get the row statement information
+                long volume = results.getLong("volume");
+                long total = results.getLong("total");
+                
+                // Add the row text to the main text
+                return new LiteralText("\n" + results.getString("day") + ": ")
+                    .append(new LiteralText(NumberFormat.getInstance().format( volume ) + " sold").formatted(Formatting.GREEN))
+                    .append(" in " + NumberFormat.getInstance().format( results.getInt("trades") ) + " trades for $" + NumberFormat.getInstance().format( total ))
+                    .append(new LiteralText(" ($" + NumberFormat.getInstance().format( volume <= 0 ? 0 : (double) total / volume ) + " each)").formatted(Formatting.GRAY));
+            }));
+            
+            // Send the text to the player
+            context.getSource().sendFeedback(text, false);
+            
+        } catch (SQLException e) {
+            // SQL statement
+            CoreMod.logError( e );
+            
+        }
+        
+        return Command.SINGLE_SUCCESS;
+    }
+    
+    private static void sendFeedback(@NotNull ServerCommandSource source, @NotNull Text text, @NotNull List<CompletableFuture<?>> names) {
+        // Send now if no names need to be looked up
+        if (names.isEmpty())
+            source.sendFeedback(text, false);
+        else CompletableFuture.allOf(names.toArray(new CompletableFuture[0]))
+            .thenRun(() -> source.getMinecraftServer().execute(() -> source.sendFeedback(text, false)));
+    }
+    
     private static Text executeSQLStatement(@NotNull Text text, @NotNull MySQLStatement stmt, @NotNull SQLFunction<ResultSet, Text> function) throws SQLException {
         ArrayList<Text> list = new ArrayList<>();
         
@@ -39,6 +39,7 @@ import net.TheElm.project.interfaces.CommandSource;
 import net.TheElm.project.interfaces.Nicknamable;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.utilities.MoneyUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
 import net.minecraft.client.network.packet.PlayerListS2CPacket;
 import net.minecraft.command.arguments.ColorArgumentType;
 import net.minecraft.command.arguments.EntityArgumentType;
@@ -114,6 +115,7 @@ public final class NickNameCommand {
     private static int setNickForPlayer(@NotNull ServerPlayerEntity player, @Nullable String nickname, Formatting... formatting) {
         // Update the players display name
         ((Nicknamable)player).setPlayerNickname( nickname == null ? null : new LiteralText( nickname ).formatted( formatting ) );
+        PlayerNameUtils.updatePlayerNickname( player.getUuid(), ((Nicknamable)player).getPlayerNickname() );
         
         // Update the name in the claim cache
         ((PlayerData)player).getClaim().updateName();
@@ -25,18 +25,48 @@
 
 package net.TheElm.project.commands;
 
+import com.google.gson.JsonParseException;
+import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.exceptions.ExceptionTranslatableServerSide;
+import net.TheElm.project.utilities.RankUtils;
+import net.TheElm.project.utilities.TranslatableServerSide;
+import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 
+import java.io.FileNotFoundException;
+
 public final class PermissionCommand {
     
+    private static final ExceptionTranslatableServerSide INVALID_FILE_EXCEPTION = new ExceptionTranslatableServerSide("server.ranks.invalid");
+    
+    private PermissionCommand() {}
+    
     public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
         if (SewingMachineConfig.INSTANCE.HANDLE_PERMISSIONS.get()) {
-            
+            dispatcher.register(CommandManager.literal("ranks")
+                .requires(source -> source.hasPermissionLevel(SewingMachineConfig.INSTANCE.COMMAND_RELOAD_OP_LEVEL.get()))
+                .then(CommandManager.literal("reload")
+                    .executes(PermissionCommand::reloadRanks)
+                )
+            );
             CoreMod.logDebug("- Registered Permission command");
         }
     }
     
+    private static int reloadRanks(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        ServerCommandSource source = context.getSource();
+        try {
+            TranslatableServerSide.send(source, "server.ranks.reloaded", RankUtils.reload());
+        } catch (FileNotFoundException | JsonParseException | IllegalStateException e) {
+            CoreMod.logError("Could not reload permissions.json", e);
+            throw INVALID_FILE_EXCEPTION.create( source );
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+    
 }
@@ -37,6 +37,7 @@ import net.TheElm.project.utilities.ChunkUtils;
 import net.TheElm.project.utilities.CommandUtilities;
 import net.TheElm.project.utilities.TitleUtils;
 import net.TheElm.project.utilities.TranslatableServerSide;
+import net.TheElm.project.utilities.WarpDirectory;
 import net.TheElm.project.utilities.WarpUtils;
 import net.TheElm.project.utilities.WarpUtils.Warp;
 import net.minecraft.command.arguments.EntityArgumentType;
@@ -202,7 +203,7 @@ public final class TeleportsCommand {
                 throw TeleportsCommand.TARGET_NOT_ONLINE.create( porter );
             
             // Add the player to the list of invitations
-            CoreMod.PLAYER_WARP_INVITES.put(porter, target.getId());
+            WarpDirectory.invite( porter.getUuid(), target.getId() );
             
             CoreMod.logInfo(porter.getName().asString() + " has requested to teleport to " + (porter.getUuid().equals(target.getId()) ? "their" : target.getName() + "'s") + " warp");
             
@@ -228,7 +229,7 @@ public final class TeleportsCommand {
         ServerPlayerEntity porter = EntityArgumentType.getPlayer( context, "player" );
         
         UUID warpToUUID;
-        if ((( warpToUUID = CoreMod.PLAYER_WARP_INVITES.get( porter ) ) == null) || (!target.getUuid().equals( warpToUUID )) )
+        if ((( warpToUUID = WarpDirectory.getInvite( porter.getUuid() ) ) == null) || (!target.getUuid().equals( warpToUUID )) )
             throw TARGET_NOT_REQUESTING.create( target );
         
         if (!ChunkUtils.isPlayerWithinSpawn( porter )) {
@@ -241,7 +242,7 @@ public final class TeleportsCommand {
         
         CoreMod.logInfo(porter.getName().asString() + " was teleported to " + (porter.getUuid().equals(target.getUuid()) ? "their" : target.getName().asString() + "'s") + " warp");
         
-        CoreMod.PLAYER_WARP_INVITES.remove( porter );
+        WarpDirectory.removeInvite( porter.getUuid() );
         return Command.SINGLE_SUCCESS;
     }
     private static int tpDenyCommand(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
@@ -253,12 +254,12 @@ public final class TeleportsCommand {
         ServerPlayerEntity porter = EntityArgumentType.getPlayer( context, "player" );
         
         UUID warpToUUID;
-        if ((( warpToUUID = CoreMod.PLAYER_WARP_INVITES.get( porter ) ) == null) || (!target.getUuid().equals( warpToUUID )) )
+        if ((( warpToUUID = WarpDirectory.getInvite( porter.getUuid() ) ) == null) || (!target.getUuid().equals( warpToUUID )) )
             throw TARGET_NOT_REQUESTING.create( target );
         
         CoreMod.logInfo( porter.getName().asString() + "'s teleport was rejected by " + target.getName().asString() );
         
-        CoreMod.PLAYER_WARP_INVITES.remove( porter );
+        WarpDirectory.removeInvite( porter.getUuid() );
         return Command.SINGLE_SUCCESS;
     }
 }
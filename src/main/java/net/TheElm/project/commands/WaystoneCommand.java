@@ -32,16 +32,25 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.utilities.MessageUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
+import net.TheElm.project.utilities.WarpDirectory;
 import net.TheElm.project.utilities.WarpUtils;
+import net.TheElm.project.utilities.WarpUtils.Warp;
 import net.minecraft.command.arguments.EntityArgumentType;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class WaystoneCommand {
     
@@ -67,6 +76,12 @@ public class WaystoneCommand {
                 )
             )
         );
+        dispatcher.register(CommandManager.literal("warps")
+            .requires((source) -> source.hasPermissionLevel( 2 ))
+            .then(CommandManager.literal("list")
+                .executes(WaystoneCommand::listWarps)
+            )
+        );
         CoreMod.logDebug( "- Registered Waystone command" );
     }
     
@@ -99,6 +114,35 @@ public class WaystoneCommand {
         
         return Command.SINGLE_SUCCESS;
     }
+    private static int listWarps(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        Map<UUID, Warp> warps = WarpDirectory.getAllWarps();
+        
+        if (warps.isEmpty()) {
+            source.sendFeedback(new LiteralText("There are no waystones.").formatted(Formatting.YELLOW), false);
+            return Command.SINGLE_SUCCESS;
+        }
+        
+        // Names that are still being looked up
+        List<CompletableFuture<?>> names = new ArrayList<>();
+        
+        Text text = new LiteralText("Waystones (" + warps.size() + "):").formatted(Formatting.YELLOW);
+        for (Map.Entry<UUID, Warp> entry : warps.entrySet()) {
+            Warp warp = entry.getValue();
+            text.append("\n- ")
+                .append(PlayerNameUtils.fetchPlayerName( entry.getKey(), names ).formatted(Formatting.AQUA))
+                .append(" at ")
+                .append(MessageUtils.blockPosToTextComponent( warp.warpPos, warp.world.dimension.getType().getRawId() ));
+        }
+        
+        // Send once all of the names are known
+        if (names.isEmpty())
+            source.sendFeedback(text, false);
+        else CompletableFuture.allOf(names.toArray(new CompletableFuture[0]))
+            .thenRun(() -> source.getMinecraftServer().execute(() -> source.sendFeedback(text, false)));
+        
+        return Command.SINGLE_SUCCESS;
+    }
     private static int sendHome(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         ServerCommandSource source = context.getSource();
         Collection<ServerPlayerEntity> players = EntityArgumentType.getPlayers(context, "players");
@@ -79,6 +79,8 @@ public final class SewingMachineConfig {
     public final ConfigOption<Boolean> DO_DEATH_CHESTS;
     public final ConfigOption<Integer> MAX_DEATH_SCAN;
     public final ConfigOption<Integer> MAX_DEATH_ELEVATION;
+    public final ConfigOption<Integer> MAX_DEATH_PROBES;
+    public final ConfigOption<Integer> DEATH_CHEST_EXPIRE;
     public final ConfigOption<Boolean> PRINT_DEATH_CHEST_LOC;
     
     // Player Combat
@@ -89,6 +91,9 @@ public final class SewingMachineConfig {
     // Player nicks
     public final ConfigOption<Boolean> DO_PLAYER_NICKS;
     public final ConfigOption<Integer> NICKNAME_COST;
+    public final ConfigOption<String> NAME_LOOKUP;
+    public final ConfigOption<Integer> NAME_CACHE_DAYS;
+    public final ConfigOption<Integer> NAME_RETRY_MINUTES;
     
     // Claiming
     public final ConfigOption<Boolean> DO_CLAIMS;
@@ -118,6 +123,7 @@ public final class SewingMachineConfig {
     public final ConfigOption<Boolean> LOG_BLOCKS_PLACING;
     public final ConfigOption<Boolean> LOG_CHUNKS_CLAIMED;
     public final ConfigOption<Boolean> LOG_CHUNKS_UNCLAIMED;
+    public final ConfigOption<Boolean> LOG_SHOP_TRANSACTIONS;
     public final ConfigOption<LoggingIntervals> LOG_RESET_INTERVAL;
     public final ConfigOption<Long> LOG_RESET_TIME;
     public final ConfigOption<Integer> LOG_VIEW_OP_LEVEL;
@@ -137,6 +143,7 @@ public final class SewingMachineConfig {
     public final ConfigOption<Boolean> DO_MONEY;
     public final ConfigOption<Integer> STARTING_MONEY;
     public final ConfigOption<Integer> DAILY_ALLOWANCE;
+    public final ConfigOption<Integer> SHOP_BULK_LIMIT;
     
     // Sleeping
     public final ConfigOption<Boolean> DO_SLEEP_VOTE;
@@ -145,6 +152,8 @@ public final class SewingMachineConfig {
     // Warp options
     public final ConfigOption<Integer> WARP_MAX_DISTANCE;
     public final ConfigOption<Integer> WARP_WAYSTONE_COST;
+    public final ConfigOption<Integer> WARP_SEARCH_ATTEMPTS;
+    public final ConfigOption<Integer> STRUCTURE_BLOCKS_PER_TICK;
     
     // End
     public final ConfigOption<Integer> DRAGON_PLAYERS;
@@ -163,6 +172,7 @@ public final class SewingMachineConfig {
     public final ConfigOption<Integer> COMMAND_FLIGHT_OP_LEVEL;
     public final ConfigOption<Integer> COMMAND_HEAL_OP_LEVEL;
     public final ConfigOption<Integer> COMMAND_REPAIR_OP_LEVEL;
+    public final ConfigOption<Integer> COMMAND_RELOAD_OP_LEVEL;
     
     // MOTD
     public final ConfigArray<String> SERVER_MOTD_LIST;
@@ -222,6 +232,7 @@ public final class SewingMachineConfig {
         this.DO_MONEY = this.addConfig( new ConfigOption<>("money.enabled", true, JsonElement::getAsBoolean));
         this.STARTING_MONEY = this.addConfig( new ConfigOption<>("money.starting", 0, JsonElement::getAsInt));
         this.DAILY_ALLOWANCE = this.addConfig( new ConfigOption<>("money.daily_reward", 0, JsonElement::getAsInt));
+        this.SHOP_BULK_LIMIT = this.addConfig( new ConfigOption<>("money.shops.bulk_limit", 64, JsonElement::getAsInt));
         
         /*
          * Starting items
@@ -234,6 +245,8 @@ public final class SewingMachineConfig {
         this.DO_DEATH_CHESTS = this.addConfig( new ConfigOption<>("death_chest.enabled", true, JsonElement::getAsBoolean));
         this.MAX_DEATH_SCAN = this.addConfig( new ConfigOption<>("death_chest.max_distance", 4, JsonElement::getAsInt));
         this.MAX_DEATH_ELEVATION = this.addConfig( new ConfigOption<>("death_chest.max_elevation", 256, JsonElement::getAsInt));
+        this.MAX_DEATH_PROBES = this.addConfig( new ConfigOption<>("death_chest.max_block_checks", 4096, JsonElement::getAsInt));
+        this.DEATH_CHEST_EXPIRE = this.addConfig( new ConfigOption<>("death_chest.expire_minutes", 0, JsonElement::getAsInt));
         this.PRINT_DEATH_CHEST_LOC = this.addConfig( new ConfigOption<>("death_chest.print_coordinates", true, JsonElement::getAsBoolean));
         
         /*
@@ -249,6 +262,10 @@ public final class SewingMachineConfig {
         this.DO_PLAYER_NICKS = this.addConfig( new ConfigOption<>("player.nicks", true, JsonElement::getAsBoolean));
         this.NICKNAME_COST = this.addConfig( new ConfigOption<>("player.nick_cost", 0, JsonElement::getAsInt));
         
+        this.NAME_LOOKUP = this.addConfig( new ConfigOption<>("player.names.lookup", "mojang", JsonElement::getAsString));
+        this.NAME_CACHE_DAYS = this.addConfig( new ConfigOption<>("player.names.cache_days", 30, JsonElement::getAsInt));
+        this.NAME_RETRY_MINUTES = this.addConfig( new ConfigOption<>("player.names.retry_minutes", 60, JsonElement::getAsInt));
+        
         this.NAME_SPAWN = this.addConfig( new ConfigOption<>("claims.name.spawn", "Spawn", JsonElement::getAsString));
         this.NAME_WILDERNESS = this.addConfig( new ConfigOption<>("claims.name.wild", "Wilderness", JsonElement::getAsString));
         
@@ -268,6 +285,7 @@ public final class SewingMachineConfig {
         this.LOG_BLOCKS_PLACING = this.addConfig( new ConfigOption<>("logging.blocks.place", false, JsonElement::getAsBoolean));
         this.LOG_CHUNKS_CLAIMED = this.addConfig( new ConfigOption<>("logging.chunks.claimed", false, JsonElement::getAsBoolean));
         this.LOG_CHUNKS_UNCLAIMED = this.addConfig( new ConfigOption<>("logging.chunks.wilderness", false, JsonElement::getAsBoolean));
+        this.LOG_SHOP_TRANSACTIONS = this.addConfig( new ConfigOption<>("logging.shops.transactions", false, JsonElement::getAsBoolean));
         this.LOG_RESET_INTERVAL = this.addConfig( new ConfigOption<>("logging.reset.interval", LoggingIntervals.DAY, this::getAsTimeInterval));
         this.LOG_RESET_TIME = this.addConfig( new ConfigOption<>("logging.reset.time", 7L, JsonElement::getAsLong));
         this.LOG_VIEW_OP_LEVEL = this.addConfig( new ConfigOption<>("logging.read.op_level", 1, JsonElement::getAsInt));
@@ -301,6 +319,8 @@ public final class SewingMachineConfig {
          */
         this.WARP_MAX_DISTANCE = this.addConfig( new ConfigOption<>( "warp.max_distance", 1000000, JsonElement::getAsInt));
         this.WARP_WAYSTONE_COST = this.addConfig( new ConfigOption<>( "warp.waystone.cost", 2000, JsonElement::getAsInt));
+        this.WARP_SEARCH_ATTEMPTS = this.addConfig( new ConfigOption<>( "warp.search.max_attempts", 50, JsonElement::getAsInt));
+        this.STRUCTURE_BLOCKS_PER_TICK = this.addConfig( new ConfigOption<>( "warp.build.blocks_per_tick", 16, JsonElement::getAsInt));
         
         /*
          * Ender Dragon Options
@@ -324,6 +344,7 @@ public final class SewingMachineConfig {
         this.COMMAND_FLIGHT_OP_LEVEL = this.addConfig( new ConfigOption<>("commands.op_level.fly", 2, JsonElement::getAsInt));
         this.COMMAND_HEAL_OP_LEVEL = this.addConfig( new ConfigOption<>("commands.op_level.heal", 2, JsonElement::getAsInt));
         this.COMMAND_REPAIR_OP_LEVEL = this.addConfig( new ConfigOption<>("commands.op_level.repair", 2, JsonElement::getAsInt));
+        this.COMMAND_RELOAD_OP_LEVEL = this.addConfig( new ConfigOption<>("commands.op_level.reload", 4, JsonElement::getAsInt));
         
         /*
          * Mob Spawners
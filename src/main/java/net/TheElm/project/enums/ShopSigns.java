@@ -38,12 +38,15 @@ import net.TheElm.project.interfaces.ShopSignBlockEntity;
 import net.TheElm.project.protections.BlockDistance;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
+import net.TheElm.project.protections.logging.EventLogger;
+import net.TheElm.project.protections.logging.TransferEvent;
 import net.TheElm.project.utilities.CasingUtils;
 import net.TheElm.project.utilities.ChunkUtils;
 import net.TheElm.project.utilities.GuideUtils;
 import net.TheElm.project.utilities.InventoryUtils;
 import net.TheElm.project.utilities.MoneyUtils;
 import net.TheElm.project.utilities.ShopSignBuilder;
+import net.TheElm.project.utilities.ShopStockUtils;
 import net.TheElm.project.utilities.TitleUtils;
 import net.TheElm.project.utilities.TranslatableServerSide;
 import net.TheElm.project.utilities.WarpUtils;
@@ -62,6 +65,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.MessageType;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.LiteralText;
@@ -127,13 +131,17 @@ public enum ShopSigns {
                 return Either.right( true );
             
             // These should NOT be null
-            if ((sign.getShopItem() == null) || (sign.getShopOwner() == null) || (sign.getShopItemCount() == null) || (sign.getShopItemPrice() == null) || (sign.getShopItemDisplay() == null))
+            if ((sign.getShopItem() == null) || (sign.getShopOwner() == null) || (sign.getShopItemCount() == null) || (sign.getShopItemCount() <= 0) || (sign.getShopItemPrice() == null) || (sign.getShopItemDisplay() == null))
                 return Either.left(TranslatableServerSide.text(player, "shop.error.database"));
             
             // Check if the attached chest exists
             if (CoreMod.spawnID.equals(sign.getShopOwner()) || ((chest = this.getAttachedChest( player.getEntityWorld(), signPos )) != null)) {
                 if (player.getUuid().equals(sign.getShopOwner()))
                     return Either.left(TranslatableServerSide.text(player, "shop.error.self_sell"));
+                
+                // Get the number of batches to sell (Sneaking sells in bulk)
+                int batches = this.getTradeBatches( player, sign );
+                
                 /*
                  * Check if chest is valid
                  */
@@ -143,23 +151,37 @@ public enum ShopSigns {
                     // If the chest is open
                     if (ChestBlockEntity.getPlayersLookingInChestCount( player.getEntityWorld(), chest.getPos() ) > 0)
                         return Either.left(TranslatableServerSide.text(player, "shop.error.chest_open"));
-                    // If player does not have any of item
-                    if (player.inventory.countInInv(sign.getShopItem()) < sign.getShopItemCount())
-                        return Either.left(TranslatableServerSide.text(player, "shop.error.stock_player", sign.getShopItemDisplay()));
                 }
+                
+                // If player does not have any of item
+                if ((batches = Math.min( batches, InventoryUtils.countInMain(player.inventory, sign.getShopItem()) / sign.getShopItemCount() )) <= 0)
+                    return Either.left(TranslatableServerSide.text(player, "shop.error.stock_player", sign.getShopItemDisplay()));
+                
+                // If the chest does not have room for the item
+                if ((chestInventory != null) && ((batches = Math.min( batches, InventoryUtils.getRoomFor(chestInventory, sign.getShopItem()) / sign.getShopItemCount() )) <= 0))
+                    return Either.left(TranslatableServerSide.text(player, "shop.error.full_chest", sign.getShopItemDisplay()));
+                
                 /*
                  * Transfer the items from chest to player
                  */
                 try {
+                    // If the shop keeper can't pay for any of the item
+                    if ((!sign.getShopOwner().equals(CoreMod.spawnID)) && (sign.getShopItemPrice() > 0) && ((batches = Math.min( batches, MoneyUtils.getPlayerMoney(sign.getShopOwner()) / sign.getShopItemPrice() )) <= 0))
+                        return Either.left(TranslatableServerSide.text(player, "shop.error.money_chest"));
+                    
+                    // Get the totals for all batches
+                    final int itemCount = batches * sign.getShopItemCount();
+                    final int itemPrice = batches * sign.getShopItemPrice();
+                    
                     // Take shop keepers money
-                    if (!(sign.getShopOwner().equals(CoreMod.spawnID) || MoneyUtils.takePlayerMoney(sign.getShopOwner(), sign.getShopItemPrice())))
+                    if (!(sign.getShopOwner().equals(CoreMod.spawnID) || MoneyUtils.takePlayerMoney(sign.getShopOwner(), itemPrice)))
                         return Either.left(TranslatableServerSide.text(player, "shop.error.money_chest"));
                     
                     // Put players item into chest
-                    if (!InventoryUtils.playerToChest( player, signPos, player.inventory, chestInventory, sign.getShopItem(), sign.getShopItemCount(), true )) {
+                    if (!InventoryUtils.playerToChest( player, signPos, player.inventory, chestInventory, sign.getShopItem(), itemCount, true )) {
                         // Refund the shopkeeper
                         if (!(sign.getShopOwner().equals(CoreMod.spawnID))) {
-                            MoneyUtils.givePlayerMoney(sign.getShopOwner(), sign.getShopItemPrice());
+                            MoneyUtils.givePlayerMoney(sign.getShopOwner(), itemPrice);
                         }
                         
                         // Error message
@@ -167,7 +189,7 @@ public enum ShopSigns {
                     }
                     
                     // Give player money for item
-                    MoneyUtils.givePlayerMoney(player, sign.getShopItemPrice());
+                    MoneyUtils.givePlayerMoney(player, itemPrice);
                     
                     // Get shop owner
                     ClaimantPlayer permissions = ClaimantPlayer.get( sign.getShopOwner() );
@@ -177,14 +199,15 @@ public enum ShopSigns {
                         player,
                         Formatting.YELLOW,
                         new LiteralText("You sold "),
-                        new LiteralText(NumberFormat.getInstance().format( sign.getShopItemCount() ) + " ").formatted(Formatting.AQUA),
+                        new LiteralText(NumberFormat.getInstance().format( itemCount ) + " ").formatted(Formatting.AQUA),
                         new TranslatableText(sign.getShopItem().getTranslationKey()).formatted(Formatting.AQUA),
                         new LiteralText(" to "),
                         permissions.getName().formatted(Formatting.AQUA)
                     );
                     
                     // Log the event
-                    CoreMod.logInfo( player.getName().asString() + " sold " + NumberFormat.getInstance().format( sign.getShopItemCount() ) + " " + sign.getShopItemDisplay().asString() + " for $" + NumberFormat.getInstance().format( sign.getShopItemPrice() ) + " to " + permissions.getName().asString() );
+                    CoreMod.logInfo( player.getName().asString() + " sold " + NumberFormat.getInstance().format( itemCount ) + " " + sign.getShopItemDisplay().asString() + " for $" + NumberFormat.getInstance().format( itemPrice ) + " to " + permissions.getName().asString() );
+                    EventLogger.log(new TransferEvent(player, sign.getShopOwner(), player.getUuid(), sign.getShopItem(), itemCount, itemPrice, signPos));
                     
                     return Either.right( true );
                     
@@ -225,6 +248,7 @@ public enum ShopSigns {
             if ( signBuilder.shopPrice() == 0 ) {
                 // Update the sign to FREE
                 sign.setTextOnRow( 0, new LiteralText("[FREE]").formatted(FREE.getFormatting()));
+                signBuilder.shopType( FREE );
                 return FREE.formatSign( signBuilder, creator);
             }
             
@@ -260,9 +284,12 @@ public enum ShopSigns {
                     return Either.left(TranslatableServerSide.text(player, "shop.error.self_buy"));
                 
                 // These should NOT be null
-                if ((sign.getShopItem() == null) || (sign.getShopOwner() == null) || (sign.getShopItemCount() == null) || (sign.getShopItemPrice() == null) || (sign.getShopItemDisplay() == null))
+                if ((sign.getShopItem() == null) || (sign.getShopOwner() == null) || (sign.getShopItemCount() == null) || (sign.getShopItemCount() <= 0) || (sign.getShopItemPrice() == null) || (sign.getShopItemDisplay() == null))
                     return Either.left(TranslatableServerSide.text(player, "shop.error.database"));
                 
+                // Get the number of batches to buy (Sneaking buys in bulk)
+                int batches = this.getTradeBatches( player, sign );
+                
                 /*
                  * Check if chest is valid
                  */
@@ -273,19 +300,30 @@ public enum ShopSigns {
                     if (ChestBlockEntity.getPlayersLookingInChestCount(player.getEntityWorld(), chest.getPos()) > 0)
                         return Either.left(TranslatableServerSide.text(player, "shop.error.chest_open"));
                     // If there is not enough of item in chest
-                    if (chest.countInInv(sign.getShopItem()) < sign.getShopItemCount())
+                    if ((batches = Math.min( batches, ShopStockUtils.countInInv(player.getEntityWorld(), chest, chestInventory, sign.getShopItem()) / sign.getShopItemCount() )) <= 0)
                         return Either.left(TranslatableServerSide.text(player, "shop.error.stock_chest", sign.getShopItemDisplay()));
+                    // If the player does not have room for the item
+                    if ((batches = Math.min( batches, InventoryUtils.getRoomFor(player.inventory, sign.getShopItem()) / sign.getShopItemCount() )) <= 0)
+                        return Either.left(TranslatableServerSide.text(player, "shop.error.full_player", sign.getShopItemDisplay()));
                 }
                 
+                // If the player can't afford any of the item
+                if ((sign.getShopItemPrice() > 0) && ((batches = Math.min( batches, MoneyUtils.getPlayerMoney(player) / sign.getShopItemPrice() )) <= 0))
+                    return Either.left(TranslatableServerSide.text(player, "shop.error.money_player"));
+                
+                // Get the totals for all batches
+                final int itemCount = batches * sign.getShopItemCount();
+                final int itemPrice = batches * sign.getShopItemPrice();
+                
                 try {
                     // Take the players money
-                    if (!MoneyUtils.takePlayerMoney(player, sign.getShopItemPrice()))
+                    if (!MoneyUtils.takePlayerMoney(player, itemPrice))
                         return Either.left(TranslatableServerSide.text(player, "shop.error.money_player"));
                     
                     // Give item to player from chest
-                    if (!InventoryUtils.chestToPlayer( player, signPos, chestInventory, player.inventory, sign.getShopItem(), sign.getShopItemCount(), true )) {
+                    if (!InventoryUtils.chestToPlayer( player, signPos, chestInventory, player.inventory, sign.getShopItem(), itemCount, true )) {
                         // Refund the player
-                        MoneyUtils.givePlayerMoney(player, sign.getShopItemPrice());
+                        MoneyUtils.givePlayerMoney(player, itemPrice);
                         
                         // Error message
                         return Either.left(TranslatableServerSide.text(player, "shop.error.stock_chest", sign.getShopItemDisplay()));
@@ -296,9 +334,9 @@ public enum ShopSigns {
                     // Give the shop keeper money
                     if (!sign.getShopOwner().equals(CoreMod.spawnID)) {
                         try {
-                            MoneyUtils.givePlayerMoney(sign.getShopOwner(), sign.getShopItemPrice());
+                            MoneyUtils.givePlayerMoney(sign.getShopOwner(), itemPrice);
                         } catch (NbtNotFoundException e) {
-                            CoreMod.logError( "Failed to give " + sign.getShopItemPrice() + " money to \"" + sign.getShopOwner() + "\" (Maybe they haven't joined the server?)." );
+                            CoreMod.logError( "Failed to give " + itemPrice + " money to \"" + sign.getShopOwner() + "\" (Maybe they haven't joined the server?)." );
                         }
                     }
                     
@@ -310,14 +348,15 @@ public enum ShopSigns {
                         player,
                         Formatting.YELLOW,
                         new LiteralText("You bought "),
-                        new LiteralText(NumberFormat.getInstance().format( sign.getShopItemCount() ) + " ").formatted(Formatting.AQUA),
+                        new LiteralText(NumberFormat.getInstance().format( itemCount ) + " ").formatted(Formatting.AQUA),
                         new TranslatableText(sign.getShopItem().getTranslationKey()).formatted(Formatting.AQUA),
                         new LiteralText(" from "),
                         permissions.getName().formatted(Formatting.AQUA)
                     );
                     
                     // Log the event
-                    CoreMod.logInfo( player.getName().asString() + " bought " + NumberFormat.getInstance().format( sign.getShopItemCount() ) + " " + sign.getShopItemDisplay().asString() + " for $" + NumberFormat.getInstance().format( sign.getShopItemPrice() ) + " from " + permissions.getName().asString() );
+                    CoreMod.logInfo( player.getName().asString() + " bought " + NumberFormat.getInstance().format( itemCount ) + " " + sign.getShopItemDisplay().asString() + " for $" + NumberFormat.getInstance().format( itemPrice ) + " from " + permissions.getName().asString() );
+                    EventLogger.log(new TransferEvent(player, player.getUuid(), sign.getShopOwner(), sign.getShopItem(), itemCount, itemPrice, signPos));
                     
                     return Either.right( true );
                     
@@ -397,7 +436,7 @@ public enum ShopSigns {
                     if (ChestBlockEntity.getPlayersLookingInChestCount(player.getEntityWorld(), chest.getPos()) > 0)
                         return Either.left(new LiteralText("Cannot do that while chest is open."));
                     // If there is not enough of item in chest
-                    if (chest.countInInv(sign.getShopItem()) < sign.getShopItemCount()) {
+                    if (ShopStockUtils.countInInv(player.getEntityWorld(), chest, chestInventory, sign.getShopItem()) < sign.getShopItemCount()) {
                         return Either.left(new LiteralText("Chest is out of " + sign.getShopItemDisplay() + "."));
                     }
                 }
@@ -410,6 +449,7 @@ public enum ShopSigns {
                 
                 // Log the event
                 CoreMod.logInfo( player.getName().asString() + " got " + NumberFormat.getInstance().format( sign.getShopItemCount() ) + " " + sign.getShopItemDisplay() + " from " + permissions.getName().asString() );
+                EventLogger.log(new TransferEvent(player, player.getUuid(), sign.getShopOwner(), sign.getShopItem(), sign.getShopItemCount(), 0, signPos));
                 
                 return Either.right( true );
             }
@@ -501,52 +541,61 @@ public enum ShopSigns {
             return SewingMachineConfig.INSTANCE.WARP_MAX_DISTANCE.get() > 0;
         }
         private boolean generateNewWarp(final ServerPlayerEntity player) {
-            // Create a new warp point asynchronously
-            new Thread(() -> {
-                // Get world info
-                final MinecraftServer server;
-                if ((server = player.getServer()) == null)
-                    return;
-                final World world = server.getWorld(DimensionType.OVERWORLD);
-                final BlockPos spawnPos = WarpUtils.getWorldSpawn( world );
-                
-                // Tell the player
-                player.sendChatMessage(TranslatableServerSide.text(
-                    player,
-                    "warp.random.search"
-                ), MessageType.CHAT);
-                
-                // Create warp
-                WarpUtils newWarp = new WarpUtils( player, spawnPos );
-                BlockPos warpToPos;
-                
-                while (((warpToPos = newWarp.getWarpPositionIn(world)) == null) || (!newWarp.build(player, world)));
-                
-                // Get the distance
-                int distance = warpToPos.getManhattanDistance(spawnPos);
-                
-                // Build the return warp
-                player.sendChatMessage(TranslatableServerSide.text(
-                    player,
-                    "warp.random.build"
-                ), MessageType.CHAT);
-                
-                // Teleport the player
-                BlockPos safeTeleportPos = newWarp.getSafeTeleportPos(world);
-                this.teleportPlayer(world, safeTeleportPos, player);
-                
-                // Save the warp for later
-                newWarp.save(world, safeTeleportPos, player);
-                
-                // Notify the player of their new location
-                player.sendChatMessage(TranslatableServerSide.text(
-                    player,
-                    "warp.random.teleported",
-                    distance
-                ), MessageType.CHAT);
-            }).start();
+            // Get world info
+            final MinecraftServer server;
+            if ((server = player.getServer()) == null)
+                return false;
+            final ServerWorld world = server.getWorld(DimensionType.OVERWORLD);
+            final BlockPos spawnPos = WarpUtils.getWorldSpawn( world );
+            
+            // Tell the player
+            player.sendChatMessage(TranslatableServerSide.text(
+                player,
+                "warp.random.search"
+            ), MessageType.CHAT);
+            
+            // Search for a warp point over the next ticks
+            this.findNewWarp(player, world, spawnPos);
             return true;
         }
+        private void findNewWarp(final ServerPlayerEntity player, final ServerWorld world, final BlockPos spawnPos) {
+            this.findNewWarp(player, world, spawnPos, new WarpUtils( player, spawnPos ));
+        }
+        private void findNewWarp(final ServerPlayerEntity player, final ServerWorld world, final BlockPos spawnPos, final WarpUtils newWarp) {
+            // Searching again counts towards the same attempt limit
+            newWarp.findWarpPositionIn(player, world, (warpToPos) -> {
+                if (warpToPos == null)
+                    return;
+                
+                // Build the warp point, look somewhere else if the warp can't be built
+                boolean building = newWarp.build(player, world, () -> {
+                    // Get the distance
+                    int distance = warpToPos.getManhattanDistance(spawnPos);
+                    
+                    // Build the return warp
+                    player.sendChatMessage(TranslatableServerSide.text(
+                        player,
+                        "warp.random.build"
+                    ), MessageType.CHAT);
+                    
+                    // Teleport the player
+                    BlockPos safeTeleportPos = newWarp.getSafeTeleportPos(world);
+                    this.teleportPlayer(world, safeTeleportPos, player);
+                    
+                    // Save the warp for later
+                    newWarp.save(world, safeTeleportPos, player);
+                    
+                    // Notify the player of their new location
+                    player.sendChatMessage(TranslatableServerSide.text(
+                        player,
+                        "warp.random.teleported",
+                        distance
+                    ), MessageType.CHAT);
+                });
+                if (!building)
+                    this.findNewWarp(player, world, spawnPos, newWarp);
+            });
+        }
         private void teleportPlayer(@NotNull final World world, @NotNull final BlockPos warpPos, @NotNull final ServerPlayerEntity player) {
             WarpUtils.teleportPlayer( world, player, warpPos );
         }
@@ -590,20 +639,14 @@ public enum ShopSigns {
                 if (!ChunkUtils.canPlayerBreakInChunk( player, signPos ))
                     return Either.left(new LiteralText("Can't build here"));
                 
-                (new Thread(() -> {
-                    WarpUtils warp = new WarpUtils( player, signPos.down() );
-                    if (!warp.build(player, player.getServerWorld())) {
-                        // Notify the player
-                        player.sendMessage(new LiteralText("Can't build that here").formatted(Formatting.RED));
-                        
-                        // Refund the player
-                        MoneyUtils.givePlayerMoney(player, SewingMachineConfig.INSTANCE.WARP_WAYSTONE_COST.get());
-                        
-                        // Cancel the build
-                        return;
-                    }
-                    warp.save(player.getServerWorld(), warp.getSafeTeleportPos( player.getEntityWorld() ), player);
-                })).start();
+                WarpUtils warp = new WarpUtils( player, signPos.down() );
+                if (!warp.build(player, player.getServerWorld(), () -> warp.save(player.getServerWorld(), warp.getSafeTeleportPos( player.getEntityWorld() ), player))) {
+                    // Notify the player
+                    player.sendMessage(new LiteralText("Can't build that here").formatted(Formatting.RED));
+                    
+                    // Refund the player
+                    MoneyUtils.givePlayerMoney(player, SewingMachineConfig.INSTANCE.WARP_WAYSTONE_COST.get());
+                }
                 return Either.right( true );
                 
             } catch (NotEnoughMoneyException e) {
@@ -676,6 +719,12 @@ public enum ShopSigns {
                     if ((region.getNorthSouth() < minWidth) || (region.getEastWest() < minWidth))
                         throw new ShopBuilderException(new LiteralText("Deed region is too small."));
                     
+                    // Check that the whole region belongs to the creator, and hasn't already been sold
+                    List<ChunkUtils.SliceRange> slices = ChunkUtils.getSliceRanges( firstPos, secondPos );
+                    ServerWorld world = (ServerWorld) sign.getWorld();
+                    if (!(ChunkUtils.isOwnerOfSlices( world, creator.getUuid(), slices ) && ChunkUtils.canPlayerClaimSlices( world, slices )))
+                        throw new ShopBuilderException(new LiteralText("Deed region must be entirely within your own unsold claims."));
+                    
                     // Update the sign to display the width
                     sign.setTextOnRow( 1, region.displayDimensions());
                     signBuilder.regionPositioning(firstPos, secondPos);
@@ -701,12 +750,46 @@ public enum ShopSigns {
             if (!(SewingMachineConfig.INSTANCE.DO_MONEY.get() && SewingMachineConfig.INSTANCE.DO_CLAIMS.get()))
                 return Either.right( true );
             
-            if ((sign.getFirstPos() == null) || (sign.getSecondPos() == null))
+            List<ChunkUtils.SliceRange> slices;
+            if ((sign.getFirstPos() == null) || (sign.getSecondPos() == null) || ((slices = sign.getDeedSlices()) == null) || (sign.getShopOwner() == null) || (sign.getShopItemPrice() == null))
                 return Either.left(new LiteralText("Invalid deed sign"));
             
+            // Can't buy your own deed
+            if (player.getUuid().equals(sign.getShopOwner()))
+                return Either.right( false );
             
+            // Check that the seller still owns the region, and nobody has bought part of it
+            ServerWorld world = player.getServerWorld();
+            if (!(ChunkUtils.isOwnerOfSlices( world, sign.getShopOwner(), slices ) && ChunkUtils.canPlayerClaimSlices( world, slices )))
+                return Either.left(new LiteralText("This deed is no longer valid"));
             
-            return Either.right( false );
+            try {
+                // Take the players money
+                if (!MoneyUtils.takePlayerMoney(player, sign.getShopItemPrice()))
+                    return Either.left(TranslatableServerSide.text(player, "shop.error.money_player"));
+                
+                // Transfer the region, one chunk at a time
+                ChunkUtils.claimSlices( world, player.getUuid(), slices );
+                
+                // Give the seller money
+                try {
+                    MoneyUtils.givePlayerMoney(sign.getShopOwner(), sign.getShopItemPrice());
+                } catch (NbtNotFoundException e) {
+                    CoreMod.logError( "Failed to give " + sign.getShopItemPrice() + " money to \"" + sign.getShopOwner() + "\" (Maybe they haven't joined the server?)." );
+                }
+                
+                // Log the transaction
+                CoreMod.logInfo( player.getName().asString() + " bought deed at " + signPos.getX() + ", " + signPos.getY() + ", " + signPos.getZ() + " for $" + NumberFormat.getInstance().format( sign.getShopItemPrice() ) );
+                EventLogger.log(new TransferEvent(player, player.getUuid(), sign.getShopOwner(), Items.AIR, 1, sign.getShopItemPrice(), signPos));
+                
+                // Remove the sign so the deed can't be sold twice
+                world.breakBlock( signPos, false );
+                
+            } catch (NotEnoughMoneyException e) {
+                return Either.left(TranslatableServerSide.text(player, "shop.error.money_player"));
+            }
+            
+            return Either.right( true );
         }
         @Override
         public boolean isEnabled() {
@@ -851,6 +934,20 @@ public enum ShopSigns {
     public final Formatting[] getFormatting() {
         return this.formattings;
     }
+    protected final int getTradeBatches(@NotNull final ServerPlayerEntity player, @NotNull final ShopSignBlockEntity sign) {
+        // Trade a single batch unless sneaking
+        int batches = ( player.isSneaking() ? Math.max( 1, SewingMachineConfig.INSTANCE.SHOP_BULK_LIMIT.get() ) : 1 );
+        
+        // Keep the totals from overflowing
+        Integer count = sign.getShopItemCount();
+        Integer price = sign.getShopItemPrice();
+        if ((count != null) && (count > 0))
+            batches = Math.min( batches, Integer.MAX_VALUE / count );
+        if ((price != null) && (price > 0))
+            batches = Math.min( batches, Integer.MAX_VALUE / price );
+        
+        return batches;
+    }
     public final LootableContainerBlockEntity getAttachedChest(final World world, final BlockPos signPos) {
         List<BlockPos> checkPositions = new ArrayList<>();
         
@@ -1,6 +1,7 @@
 package net.TheElm.project.interfaces;
 
 import net.minecraft.text.Text;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public interface Nicknamable {
@@ -8,4 +9,8 @@ public interface Nicknamable {
     void setPlayerNickname(@Nullable Text nickname);
     Text getPlayerNickname();
     
+    @NotNull
+    Text getPlayerListName();
+    void resetPlayerListName();
+    
 }
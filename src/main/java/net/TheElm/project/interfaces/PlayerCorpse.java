@@ -25,12 +25,15 @@
 
 package net.TheElm.project.interfaces;
 
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.ListTag;
 
 import java.util.UUID;
 
 public interface PlayerCorpse {
     
-    void setCorpseData(UUID owner, ListTag inventory);
+    void setCorpseData(UUID owner, ListTag inventory, long createdAt);
+    void returnItemsToPlayer(PlayerEntity player);
+    void dropCorpseItems();
     
 }
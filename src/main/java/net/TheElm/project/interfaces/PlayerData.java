@@ -27,6 +27,7 @@ package net.TheElm.project.interfaces;
 
 import net.TheElm.project.enums.CompassDirections;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
+import net.TheElm.project.protections.ranks.PlayerPermissions;
 import net.TheElm.project.protections.ranks.PlayerRank;
 import net.minecraft.entity.boss.ServerBossBar;
 import net.minecraft.util.math.BlockPos;
@@ -50,6 +51,8 @@ public interface PlayerData {
      */
     ClaimantPlayer getClaim();
     PlayerRank[] getRanks();
+    PlayerPermissions getPermissions();
+    void resetRanks();
     
     /*
      * Player join information
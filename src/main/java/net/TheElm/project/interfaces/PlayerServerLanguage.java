@@ -30,5 +30,6 @@ import java.util.Locale;
 public interface PlayerServerLanguage {
 
     Locale getClientLanguage();
+    String getClientLanguageKey();
     
 }
@@ -26,12 +26,14 @@
 package net.TheElm.project.interfaces;
 
 import net.TheElm.project.enums.ShopSigns;
+import net.TheElm.project.utilities.ChunkUtils;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.Item;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface ShopSignBlockEntity {
@@ -53,6 +55,8 @@ public interface ShopSignBlockEntity {
     BlockPos getFirstPos();
     @Nullable
     BlockPos getSecondPos();
+    @Nullable
+    List<ChunkUtils.SliceRange> getDeedSlices();
     
     @Nullable
     Inventory getInventory();
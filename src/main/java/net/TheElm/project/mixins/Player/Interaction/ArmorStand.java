@@ -29,6 +29,7 @@ import net.TheElm.project.config.SewingMachineConfig;
 import net.TheElm.project.interfaces.IClaimedChunk;
 import net.TheElm.project.interfaces.PlayerCorpse;
 import net.TheElm.project.utilities.ChunkUtils;
+import net.TheElm.project.utilities.DeathChestRegistry;
 import net.TheElm.project.utilities.EntityUtils;
 import net.TheElm.project.utilities.TitleUtils;
 import net.TheElm.project.utilities.TranslatableServerSide;
@@ -70,6 +71,7 @@ public abstract class ArmorStand extends LivingEntity implements PlayerCorpse {
     
     private UUID corpsePlayerUUID = null;
     private ListTag corpsePlayerItems = null;
+    private long corpseCreatedAt = 0L;
     
     protected ArmorStand(EntityType<? extends LivingEntity> entityType_1, World world_1) {
         super(entityType_1, world_1);
@@ -130,9 +132,11 @@ public abstract class ArmorStand extends LivingEntity implements PlayerCorpse {
         super.onPlayerCollision( player );
     }
     
-    public void setCorpseData(UUID owner, ListTag inventory) {
+    @Override
+    public void setCorpseData(UUID owner, ListTag inventory, long createdAt) {
         this.corpsePlayerUUID = owner;
         this.corpsePlayerItems = inventory;
+        this.corpseCreatedAt = createdAt;
     }
     private void giveCorpseItems(final PlayerEntity player) {
         World world = player.world;
@@ -174,9 +178,11 @@ public abstract class ArmorStand extends LivingEntity implements PlayerCorpse {
         // Reset the tag list
         this.corpsePlayerItems = null;
     }
-    private void returnItemsToPlayer(final PlayerEntity player) {
+    @Override
+    public void returnItemsToPlayer(final PlayerEntity player) {
         // Give the items back to the player
         this.giveCorpseItems( player );
+        DeathChestRegistry.remove( this.getUuid() );
         BlockPos blockPos = this.getBlockPos().up();
         
         // Play sound
@@ -198,12 +204,33 @@ public abstract class ArmorStand extends LivingEntity implements PlayerCorpse {
         this.destroy();
     }
     
+    @Override
+    public void dropCorpseItems() {
+        // Drop the items where the corpse is
+        if ( this.corpsePlayerItems != null ) {
+            for (Tag item : this.corpsePlayerItems)
+                this.dropStack(ItemStack.fromTag((CompoundTag) item));
+            this.corpsePlayerItems = null;
+        }
+        DeathChestRegistry.remove( this.getUuid() );
+        
+        // Remove the armor stand
+        this.destroy();
+    }
+    @Inject(at = @At("HEAD"), method = "kill")
+    public void onKilled(CallbackInfo callback) {
+        // Stop listing corpses that were killed (Eg; With /kill)
+        if ( this.corpsePlayerUUID != null )
+            DeathChestRegistry.remove( this.getUuid() );
+    }
+    
     @Inject(at=@At("TAIL"), method = "writeCustomDataToTag")
     public void onSavingData(CompoundTag tag, CallbackInfo callback) {
         // Save the player warp location for restarts
         if ( this.corpsePlayerUUID != null ) {
             tag.putUuid("corpsePlayerUUID", this.corpsePlayerUUID);
             tag.put("corpsePlayerItems", this.corpsePlayerItems);
+            tag.putLong("corpseCreatedAt", this.corpseCreatedAt);
         }
     }
     @Inject(at=@At("TAIL"), method = "readCustomDataFromTag")
@@ -211,6 +238,14 @@ public abstract class ArmorStand extends LivingEntity implements PlayerCorpse {
         if ( tag.containsUuid( "corpsePlayerUUID" ) ) {
             this.corpsePlayerUUID = tag.getUuid("corpsePlayerUUID");
             this.corpsePlayerItems = tag.getList("corpsePlayerItems", NbtType.COMPOUND);
+            
+            // Corpses from before the registry are indexed from when they first load
+            if (tag.contains("corpseCreatedAt", NbtType.LONG))
+                this.corpseCreatedAt = tag.getLong("corpseCreatedAt");
+            else this.corpseCreatedAt = System.currentTimeMillis();
+            
+            if (!this.world.isClient)
+                DeathChestRegistry.register( this.getUuid(), this.corpsePlayerUUID, this.world, this.getBlockPos(), this.corpseCreatedAt );
         }
     }
 }
@@ -28,6 +28,7 @@ package net.TheElm.project.mixins.Player.Interaction;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.enums.ShopSigns;
 import net.TheElm.project.interfaces.ShopSignBlockEntity;
+import net.TheElm.project.utilities.ChunkUtils;
 import net.TheElm.project.utilities.ShopSignBuilder;
 import net.fabricmc.fabric.api.util.NbtType;
 import net.minecraft.block.entity.BlockEntity;
@@ -37,6 +38,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
@@ -44,6 +46,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.InvalidIdentifierException;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -52,6 +55,9 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @Mixin(SignBlockEntity.class)
@@ -68,7 +74,7 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
     private ShopSigns shopSign_Type = null;
     
     // Item being traded
-    private Identifier shopSign_item = null;
+    private Item shopSign_item = null;
     
     // Price / Count of item transactioning
     private Integer shopSign_itemCount = null;
@@ -77,6 +83,7 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
     // Region Sign Information
     private BlockPos shopSign_posA = null;
     private BlockPos shopSign_posB = null;
+    private List<ChunkUtils.SliceRange> shopSign_slices = null;
     
     /*
      * Mixin Getters
@@ -93,14 +100,13 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
     
     @Override @Nullable
     public Item getShopItem() {
-        Item tradeItem;
-        if (( tradeItem = Registry.ITEM.get( this.shopSign_item ) ) != Items.AIR )
-            return tradeItem;
-        return null;
+        return this.shopSign_item;
     }
     @Override @Nullable
     public Text getShopItemDisplay() {
-        return new TranslatableText(Registry.ITEM.get( this.shopSign_item ).getTranslationKey());
+        if (this.shopSign_item == null)
+            return null;
+        return new TranslatableText(this.shopSign_item.getTranslationKey());
     }
     @Override @Nullable
     public Integer getShopItemCount() {
@@ -119,6 +125,10 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
     public BlockPos getSecondPos() {
         return this.shopSign_posB;
     }
+    @Override @Nullable
+    public List<ChunkUtils.SliceRange> getDeedSlices() {
+        return this.shopSign_slices;
+    }
     
     @Override @Nullable
     public ShopSigns getShopType() {
@@ -159,7 +169,7 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
                 
                 // Update the parameters here from the builder
                 this.shopSign_Owner = builder.shopOwner();
-                this.shopSign_item = builder.getItem();
+                this.shopSign_item = ShopSign.validItem( builder.getTradeItem() );
                 
                 this.shopSign_itemCount = builder.itemSize();
                 this.shopSign_itemPrice = builder.shopPrice();
@@ -167,6 +177,10 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
                 if (this.shopSign_Type == ShopSigns.DEED) {
                     this.shopSign_posA = builder.regionPosA();
                     this.shopSign_posB = builder.regionPosB();
+                    
+                    // Split the region by chunk now, instead of when it is bought
+                    if ((this.shopSign_posA != null) && (this.shopSign_posB != null))
+                        this.shopSign_slices = ChunkUtils.getSliceRanges( this.shopSign_posA, this.shopSign_posB );
                 }
             }
         }
@@ -183,11 +197,12 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
         if ( this.shopSign_Owner == null )
             return;
         
+        tag.putByte("shop_version", ShopSign.NBT_VERSION );
         tag.putUuid("shop_owner", this.shopSign_Owner );
-        if ( this.shopSign_item != null ) {
-            tag.putString("shop_item_mod", this.shopSign_item.getNamespace());
-            tag.putString("shop_item_name", this.shopSign_item.getPath());
-        }
+        if ( this.shopSign_Type != null )
+            tag.putByte("shop_type", (byte) this.shopSign_Type.ordinal() );
+        if ( this.shopSign_item != null )
+            tag.putString("shop_item", Registry.ITEM.getId( this.shopSign_item ).toString() );
         if (this.shopSign_itemCount != null) tag.putInt("shop_item_count", this.shopSign_itemCount );
         if (this.shopSign_itemPrice != null) tag.putInt("shop_price", this.shopSign_itemPrice );
         
@@ -195,6 +210,12 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
             tag.putLong("shop_blockPosA", this.getFirstPos().asLong());
             tag.putLong("shop_blockPosB", this.getSecondPos().asLong());
         }
+        if (this.shopSign_slices != null) {
+            ListTag slices = new ListTag();
+            for (ChunkUtils.SliceRange range : this.shopSign_slices)
+                slices.add(range.toTag());
+            tag.put("shop_slices", slices);
+        }
         
         callback.setReturnValue( tag );
     }
@@ -202,21 +223,18 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
     @Inject(at = @At("RETURN"), method = "fromTag")
     public void nbtRead(CompoundTag tag, CallbackInfo callback) {
         // Shop signs
-        if ( tag.containsUuid( "shop_owner" ) && (this.shopSign_Type = ShopSigns.valueOf(this.text[0])) != null) {
+        if ( tag.containsUuid( "shop_owner" ) && (this.shopSign_Type = ShopSign.readShopType( tag, this.text[0] )) != null) {
             // Get the ITEM for the shop
-            if (tag.contains("shop_item_mod", NbtType.STRING) && tag.contains("shop_item_name", NbtType.STRING)) {
-                String signItem = tag.getString("shop_item_mod") + ":" + tag.getString("shop_item_name");
-                try {
-                    this.shopSign_item = new Identifier(signItem);
-                } catch (InvalidIdentifierException e) {
-                    CoreMod.logError("Could not find item \"" + signItem + "\" for shop sign.", e);
-                }
-            }
+            if (tag.contains("shop_item", NbtType.STRING))
+                this.shopSign_item = ShopSign.readShopItem( tag.getString("shop_item") );
+            else if (tag.contains("shop_item_mod", NbtType.STRING) && tag.contains("shop_item_name", NbtType.STRING))
+                this.shopSign_item = ShopSign.readShopItem( tag.getString("shop_item_mod") + ":" + tag.getString("shop_item_name") );
             
             // Get the BLOCK POSITIONS for deed
             if (tag.contains("shop_blockPosA", NbtType.LONG) && tag.contains("shop_blockPosB", NbtType.LONG)) {
                 this.shopSign_posA = BlockPos.fromLong(tag.getLong("shop_blockPosA"));
                 this.shopSign_posB = BlockPos.fromLong(tag.getLong("shop_blockPosB"));
+                this.shopSign_slices = ShopSign.readDeedSlices( tag, this.shopSign_posA, this.shopSign_posB );
             }
             
             // Save other relevant shop sign data
@@ -226,4 +244,61 @@ public abstract class ShopSign extends BlockEntity implements ShopSignBlockEntit
         }
     }
     
+    /*
+     * NBT layout
+     */
+    
+    /**
+     * Version 1 stores the shop type as an ordinal and the item as a single identifier.
+     * Signs without a version (Version 0) are read from the sign text and split item name.
+     */
+    private static final byte NBT_VERSION = 1;
+    
+    @Nullable
+    private static ShopSigns readShopType(@NotNull CompoundTag tag, @NotNull Text firstLine) {
+        if ((tag.getByte("shop_version") >= 1) && tag.contains("shop_type", NbtType.NUMBER)) {
+            ShopSigns[] types = ShopSigns.values();
+            int ordinal = tag.getByte("shop_type");
+            if ((ordinal >= 0) && (ordinal < types.length))
+                return types[ordinal];
+        }
+        
+        // Legacy signs only know their type from their text
+        return ShopSigns.valueOf( firstLine );
+    }
+    @NotNull
+    private static List<ChunkUtils.SliceRange> readDeedSlices(@NotNull CompoundTag tag, @NotNull BlockPos posA, @NotNull BlockPos posB) {
+        if (tag.contains("shop_slices", NbtType.LIST)) {
+            List<ChunkUtils.SliceRange> slices = new ArrayList<>();
+            ListTag list = tag.getList("shop_slices", NbtType.INT_ARRAY);
+            for (int i = 0; i < list.size(); i++) {
+                ChunkUtils.SliceRange range = ChunkUtils.SliceRange.fromTag( list.getIntArray( i ) );
+                if (range == null)
+                    break;
+                slices.add( range );
+            }
+            if (slices.size() == list.size())
+                return Collections.unmodifiableList( slices );
+        }
+        
+        // Signs from before slices were stored are split from their corners
+        return ChunkUtils.getSliceRanges( posA, posB );
+    }
+    @Nullable
+    private static Item readShopItem(@NotNull String signItem) {
+        try {
+            Item item = ShopSign.validItem(Registry.ITEM.get(new Identifier( signItem )));
+            if (item == null)
+                CoreMod.logError("Could not find item \"" + signItem + "\" for shop sign.");
+            return item;
+        } catch (InvalidIdentifierException e) {
+            CoreMod.logError("Could not find item \"" + signItem + "\" for shop sign.", e);
+        }
+        return null;
+    }
+    @Nullable
+    private static Item validItem(@Nullable Item item) {
+        return ((item == null) || (item == Items.AIR) ? null : item);
+    }
+    
 }
@@ -30,16 +30,22 @@ import net.TheElm.project.config.SewingMachineConfig;
 import net.TheElm.project.enums.ChatRooms;
 import net.TheElm.project.enums.ClaimSettings;
 import net.TheElm.project.interfaces.IClaimedChunk;
+import net.TheElm.project.interfaces.Nicknamable;
 import net.TheElm.project.interfaces.PlayerChat;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.interfaces.PlayerMovement;
+import net.TheElm.project.protections.ChatFormatter;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
+import net.TheElm.project.protections.naming.PlayerNameResolver;
+import net.TheElm.project.protections.ranks.PlayerPermissions;
 import net.TheElm.project.protections.ranks.PlayerRank;
 import net.TheElm.project.utilities.CasingUtils;
 import net.TheElm.project.utilities.ChunkUtils;
-import net.TheElm.project.utilities.MessageUtils;
 import net.TheElm.project.utilities.MoneyUtils;
+import net.TheElm.project.utilities.OfflinePlayerUtils;
+import net.TheElm.project.utilities.PlayerGridUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
 import net.TheElm.project.utilities.RankUtils;
 import net.TheElm.project.utilities.TitleUtils;
 import net.TheElm.project.utilities.TranslatableServerSide;
@@ -106,6 +112,7 @@ public abstract class ServerInteraction implements ServerPlayPacketListener, Pla
      * Ranks
      */
     private PlayerRank[] ranks = null;
+    private PlayerPermissions permissions = null;
     
     @NotNull
     public PlayerRank[] getRanks() {
@@ -113,6 +120,16 @@ public abstract class ServerInteraction implements ServerPlayPacketListener, Pla
             this.ranks = RankUtils.loadPlayerRanks(this.player.getGameProfile());
         return this.ranks;
     }
+    @NotNull
+    public PlayerPermissions getPermissions() {
+        if (this.permissions == null)
+            this.permissions = new PlayerPermissions(this.getRanks());
+        return this.permissions;
+    }
+    public void resetRanks() {
+        this.ranks = null;
+        this.permissions = null;
+    }
     
     /*
      * Health Bars
@@ -146,9 +163,19 @@ public abstract class ServerInteraction implements ServerPlayPacketListener, Pla
     public void onPlayerConnect(MinecraftServer server, ClientConnection client, ServerPlayerEntity player, CallbackInfo callback) {
         // Set the players position as in the wilderness
         CoreMod.PLAYER_LOCATIONS.put( player, null );
+        PlayerGridUtils.update( player );
+        
+        // Remember the name for when the player is offline
+        PlayerNameResolver.store( player.getUuid(), player.getGameProfile().getName() );
         
         // Initialize user claims from database
         this.playerClaimData = ( SewingMachineConfig.INSTANCE.DO_CLAIMS.get() ? ClaimantPlayer.get( player.getUuid() ) : null );
+        if (this.playerClaimData != null)
+            this.playerClaimData.setOnline( true );
+        
+        // Compile the players permissions
+        if (SewingMachineConfig.INSTANCE.HANDLE_PERMISSIONS.get())
+            this.getPermissions();
         
         // Check if server has been joined before
         if (((PlayerData) player).getFirstJoinAt() == null) {
@@ -217,6 +244,12 @@ public abstract class ServerInteraction implements ServerPlayPacketListener, Pla
         // Clear the players location from the cache
         // (Will show location again when logged back in)
         CoreMod.PLAYER_LOCATIONS.remove( this.player );
+        PlayerGridUtils.remove( this.player );
+        PlayerNameUtils.resetPlayerChatName( this.player.getUuid() );
+        OfflinePlayerUtils.reclaim( this.player.getUuid() );
+        PlayerNameUtils.updatePlayerNickname( this.player.getUuid(), ((Nicknamable) this.player).getPlayerNickname() );
+        if (this.playerClaimData != null)
+            this.playerClaimData.setOnline( false );
         
         // Remove players from the health bar when disconnecting
         // (Don't have floating health bars remaining on-screen)
@@ -235,17 +268,17 @@ public abstract class ServerInteraction implements ServerPlayPacketListener, Pla
         // The chatroom to send the message in
         ChatRooms chatRoom = this.getChatRoom();
         
-        // Create a chat message
-        Text chatText = MessageUtils.formatPlayerMessage( this.player, chatRoom, rawString );
-        
-        // Send the new chat message to the currently selected chat room
-        MessageUtils.sendTo(chatRoom, this.player, chatText);
+        // Format and send the chat message to the currently selected chat room
+        ChatFormatter.queue( this.player, chatRoom, rawString );
         
         // Cancel the original
         callback.cancel();
     }
     
     public void movedPlayer( final ServerPlayerEntity player ) {
+        // Update the players position in the grid
+        PlayerGridUtils.update( player );
+        
         if (!SewingMachineConfig.INSTANCE.DO_CLAIMS.get())
             return;
         
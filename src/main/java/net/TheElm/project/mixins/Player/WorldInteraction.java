@@ -38,9 +38,13 @@ import net.TheElm.project.interfaces.PlayerChat;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.interfaces.PlayerServerLanguage;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
+import net.TheElm.project.protections.ranks.PlayerPermissions;
 import net.TheElm.project.protections.ranks.PlayerRank;
 import net.TheElm.project.utilities.NbtUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
 import net.TheElm.project.utilities.SleepUtils;
+import net.TheElm.project.utilities.TranslatableServerSide;
+import net.TheElm.project.utilities.WarpDirectory;
 import net.fabricmc.fabric.api.util.NbtType;
 import net.minecraft.client.network.packet.PlayerSpawnPositionS2CPacket;
 import net.minecraft.entity.Entity;
@@ -52,6 +56,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.network.packet.ClientSettingsC2SPacket;
 import net.minecraft.text.ClickEvent;
 import net.minecraft.text.LiteralText;
 import net.minecraft.text.Text;
@@ -98,6 +103,7 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     
     // Nickname
     private Text playerNickname = null;
+    private Text playerListName = null;
     
     // Portal locations
     private BlockPos overworldPortal = null;
@@ -106,6 +112,11 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     // Compass
     private CompassDirections compassDirections = CompassDirections.SPAWN;
     
+    // Client language (Resolved from the clientLanguage it was read from)
+    private String clientLocaleTag = null;
+    private Locale clientLocale = null;
+    private String clientLocaleKey = null;
+    
     public WorldInteraction(World world_1, GameProfile gameProfile_1) {
         super(world_1, gameProfile_1);
     }
@@ -212,6 +223,15 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     public PlayerRank[] getRanks() {
         return ((PlayerData)this.networkHandler).getRanks();
     }
+    @Override
+    public PlayerPermissions getPermissions() {
+        return ((PlayerData)this.networkHandler).getPermissions();
+    }
+    @Override
+    public void resetRanks() {
+        ((PlayerData)this.networkHandler).resetRanks();
+        this.resetPlayerListName();
+    }
     
     /*
      * Server joins
@@ -257,10 +277,12 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
         if (blockPos == null)
             this.warpDimension = null;
         this.warpPos = blockPos;
+        WarpDirectory.setWarp( this.getUuid(), (this.warpDimension == null ? 0 : this.warpDimension), this.warpPos );
     }
     @Override
     public void setWarpDimension(@NotNull World world) {
         this.warpDimension = world.dimension.getType().getRawId();
+        WarpDirectory.setWarp( this.getUuid(), this.warpDimension, this.warpPos );
     }
     
     /*
@@ -350,8 +372,30 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     /*
      * Connected players language
      */
+    @Inject(at = @At("TAIL"), method = "setClientSettings")
+    public void onClientSettings(ClientSettingsC2SPacket packet, CallbackInfo callback) {
+        this.updateClientLanguage();
+    }
     public Locale getClientLanguage() {
-        return Locale.forLanguageTag( this.clientLanguage );
+        this.updateClientLanguage();
+        return this.clientLocale;
+    }
+    public String getClientLanguageKey() {
+        this.updateClientLanguage();
+        return this.clientLocaleKey;
+    }
+    private void updateClientLanguage() {
+        // Only resolve the language again if the client has changed it
+        String tag = this.clientLanguage;
+        if ((this.clientLocale != null) && (tag == this.clientLocaleTag))
+            return;
+        
+        // Clients send their language as "en_us"
+        Locale locale = Locale.forLanguageTag( tag.replace( '_', '-' ) );
+        
+        this.clientLocaleKey = TranslatableServerSide.getLanguageKey( locale );
+        this.clientLocale = locale;
+        this.clientLocaleTag = tag;
     }
     
     /*
@@ -398,6 +442,7 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
             if ( tag.contains( "playerWarpD" ) )
                 this.warpDimension = tag.getInt("playerWarpD");
         }
+        WarpDirectory.setWarp( this.getUuid(), (this.warpDimension == null ? 0 : this.warpDimension), this.warpPos );
         
         // Get the nickname
         if (tag.contains("PlayerNickname", NbtType.STRING))
@@ -452,6 +497,8 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     @Override
     public void setPlayerNickname(@Nullable Text nickname) {
         this.playerNickname = nickname;
+        this.resetPlayerListName();
+        PlayerNameUtils.resetPlayerChatName( this.getUuid() );
     }
     @Nullable @Override
     public Text getPlayerNickname() {
@@ -463,6 +510,33 @@ public abstract class WorldInteraction extends PlayerEntity implements PlayerDat
     public void getServerlistDisplayName(CallbackInfoReturnable<Text> callback) {
         callback.setReturnValue( ((Nicknamable) this).getPlayerNickname() );
     }
+    @Override @NotNull
+    public Text getPlayerListName() {
+        if (this.playerListName == null) {
+            Text displayName = (this.playerNickname == null ?
+                new LiteralText(this.getGameProfile().getName()).formatted(Formatting.YELLOW)
+                : this.playerNickname.deepCopy()
+            );
+            
+            for (PlayerRank rank : this.getRanks()) {
+                Text display;
+                if ((display = rank.getDisplay()) != null) {
+                    // Open bracket
+                    displayName.append(new LiteralText(" [").formatted(Formatting.WHITE)
+                        .append(display)
+                        .append("]"));
+                    break; // Only append one
+                }
+            }
+            
+            this.playerListName = displayName;
+        }
+        return this.playerListName;
+    }
+    @Override
+    public void resetPlayerListName() {
+        this.playerListName = null;
+    }
     
     /*
      * Chat Rooms (Handled cross dimension)
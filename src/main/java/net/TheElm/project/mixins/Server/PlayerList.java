@@ -26,9 +26,10 @@
 package net.TheElm.project.mixins.Server;
 
 import com.mojang.authlib.GameProfile;
-import net.TheElm.project.protections.ranks.PlayerRank;
-import net.TheElm.project.utilities.RankUtils;
+import net.TheElm.project.ServerCore;
+import net.TheElm.project.interfaces.Nicknamable;
 import net.minecraft.client.network.packet.PlayerListS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.LiteralText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
@@ -47,24 +48,19 @@ public class PlayerList {
     
     @Inject(at = @At("RETURN"), method = "getDisplayName", cancellable = true)
     public void getDisplayName(CallbackInfoReturnable<Text> callback) {
-        Text displayName = (this.displayName == null ?
-            new LiteralText(this.profile.getName()).formatted(Formatting.YELLOW)
-            : this.displayName.deepCopy()
-        );
+        ServerPlayerEntity player = ServerCore.getPlayer( this.profile.getId() );
         
-        for (PlayerRank rank : RankUtils.getPlayerRanks(this.profile)) {
-            Text display;
-            if ((display = rank.getDisplay()) != null) {
-                // Open bracket
-                displayName.append(new LiteralText(" [").formatted(Formatting.WHITE)
-                    .append(display)
-                    .append("]"));
-                break; // Only append one
-            }
+        // Use the display name that the player has built
+        if (player != null) {
+            callback.setReturnValue(((Nicknamable) player).getPlayerListName());
+            return;
         }
         
         // Set the return value
-        callback.setReturnValue(displayName);
+        callback.setReturnValue(this.displayName == null ?
+            new LiteralText(this.profile.getName()).formatted(Formatting.YELLOW)
+            : this.displayName.deepCopy()
+        );
     }
     
 }
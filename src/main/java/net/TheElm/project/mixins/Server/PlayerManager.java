@@ -27,6 +27,7 @@ package net.TheElm.project.mixins.Server;
 
 import com.mojang.authlib.GameProfile;
 import net.TheElm.project.utilities.LegacyConverter;
+import net.TheElm.project.utilities.OfflinePlayerUtils;
 import net.TheElm.project.utilities.TeamUtils;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -50,6 +51,12 @@ public class PlayerManager {
             callback.setReturnValue(new LiteralText("The server is currently updating!"));
     }
     
+    @Inject(at = @At("HEAD"), method = "onPlayerConnect")
+    public void onPlayerJoin(ClientConnection connection, ServerPlayerEntity player, CallbackInfo callback) {
+        // Write any offline changes before the players data is loaded
+        OfflinePlayerUtils.release( player.getUuid() );
+    }
+    
     @Inject(at = @At("RETURN"), method = "onPlayerConnect")
     public void onPlayerConnect(ClientConnection connection, ServerPlayerEntity player, CallbackInfo callback) {
         TeamUtils.applyTeams( player );
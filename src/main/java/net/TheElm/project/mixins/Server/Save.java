@@ -26,10 +26,16 @@
 package net.TheElm.project.mixins.Server;
 
 import net.TheElm.project.CoreMod;
+import net.TheElm.project.protections.ChatFormatter;
 import net.TheElm.project.protections.claiming.Claimant;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
 import net.TheElm.project.protections.logging.EventLogger;
+import net.TheElm.project.protections.naming.PlayerNameResolver;
+import net.TheElm.project.utilities.DeathChestRegistry;
+import net.TheElm.project.utilities.OfflinePlayerUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
+import net.TheElm.project.utilities.WarpDirectory;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.ServerTask;
 import net.minecraft.server.command.CommandOutput;
@@ -56,12 +62,20 @@ public abstract class Save extends ReentrantThreadExecutor<ServerTask> implement
             
             if (!silent) CoreMod.logInfo("Saving claimed town data");
             CoreMod.getCacheStream(ClaimantTown.class).forEach(Claimant::save);
+            
+            PlayerNameUtils.saveNicknameIndex();
+            WarpDirectory.save();
+            DeathChestRegistry.save();
+            OfflinePlayerUtils.flush();
         }
     }
     
     @Inject(at = @At("TAIL"), method = "shutdown")
     public void shutdown(CallbackInfo callback) {
         EventLogger.stop();
+        ChatFormatter.stop();
+        PlayerNameResolver.stop();
+        OfflinePlayerUtils.stop();
     }
     
 }
@@ -0,0 +1,211 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.protections;
+
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.ServerCore;
+import net.TheElm.project.enums.ChatRooms;
+import net.TheElm.project.interfaces.PlayerData;
+import net.TheElm.project.protections.claiming.ClaimantPlayer;
+import net.TheElm.project.utilities.MessageUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Formats player chat messages away from the server thread.
+ * The senders name, town and dimension, and the position and town of every
+ * player that could receive the message, are copied on the server thread. The
+ * worker builds the message and picks the recipients from those copies. Messages
+ * are handled one at a time in the order they were sent, and are handed back to
+ * the server thread to be sent.
+ */
+public final class ChatFormatter implements Runnable {
+    
+    private static final int LOCAL_RADIUS = 800;
+    
+    private static final ChatFormatter INSTANCE = new ChatFormatter();
+    private static final LinkedBlockingDeque<ChatMessage> chatLog = new LinkedBlockingDeque<>();
+    
+    private final Thread thread;
+    
+    private ChatFormatter() {
+        this.thread = new Thread(this);
+        this.thread.setName("Chat formatter");
+        this.thread.setDaemon(true);
+    }
+    
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.wrapper();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                // Log and continue (Thread should not die)
+                CoreMod.logError( e );
+            }
+        }
+    }
+    
+    @SuppressWarnings("InfiniteLoopStatement")
+    private void wrapper() throws InterruptedException {
+        while ( true ) this.format(chatLog.takeFirst());
+    }
+    
+    private void format(@NotNull ChatMessage message) {
+        // Create a chat message from the senders display name
+        Text display = message.name.toDisplay( message.dimension, message.chatRoom, message.title );
+        Text chatText = MessageUtils.formatPlayerMessage( display, message.chatRoom, new LiteralText( message.raw ) );
+        
+        // Find who should receive the message
+        List<UUID> recipients = ChatFormatter.getRecipients( message );
+        
+        // Send from the server thread (Tasks run in the order they are added)
+        ServerCore.get().execute(() -> {
+            List<ServerPlayerEntity> players = null;
+            if (recipients != null) {
+                PlayerManager playerManager = ServerCore.get().getPlayerManager();
+                players = new ArrayList<>(recipients.size());
+                for (UUID uuid : recipients) {
+                    ServerPlayerEntity player = playerManager.getPlayer( uuid );
+                    if (player != null)
+                        players.add( player );
+                }
+            }
+            MessageUtils.sendToPlayers( players, chatText );
+        });
+    }
+    
+    @Nullable
+    private static List<UUID> getRecipients(@NotNull ChatMessage message) {
+        if (message.players == null)
+            return null;
+        
+        List<UUID> recipients = new ArrayList<>();
+        for (Recipient player : message.players) {
+            switch (message.chatRoom) {
+                case LOCAL: {
+                    if ((player.dimension != message.dimension) || (Math.abs(player.x - message.x) > LOCAL_RADIUS) || (Math.abs(player.z - message.z) > LOCAL_RADIUS))
+                        continue;
+                    break;
+                }
+                case TOWN: {
+                    if ((message.townId == null) || (!message.townId.equals( player.townId )))
+                        continue;
+                    break;
+                }
+            }
+            recipients.add( player.uuid );
+        }
+        return recipients;
+    }
+    
+    // Static method for sending chat, called from the server thread
+    public static void queue(@NotNull ServerPlayerEntity player, @NotNull ChatRooms chatRoom, @NotNull String raw) {
+        // Copy what is needed from the server, the rest of the work is done by the worker
+        ChatMessage message = new ChatMessage( player, PlayerNameUtils.getPlayerChatName( player ), chatRoom, raw );
+        
+        // Format on this thread if not running
+        if ((!INSTANCE.thread.isAlive()) || (!chatLog.offer( message )))
+            INSTANCE.format( message );
+    }
+    
+    // Static method to start
+    public static ChatFormatter start() {
+        // Start the runnable in a new Thread
+        if (!INSTANCE.thread.isAlive())
+            INSTANCE.thread.start();
+        
+        return INSTANCE;
+    }
+    public static void stop() {
+        INSTANCE.thread.interrupt();
+    }
+    
+    private static final class ChatMessage {
+        private final PlayerNameUtils.ChatName name;
+        private final String title;
+        private final DimensionType dimension;
+        private final double x;
+        private final double z;
+        private final UUID townId;
+        private final ChatRooms chatRoom;
+        private final String raw;
+        
+        // Everyone that might receive the message, or null for everyone online
+        private final List<Recipient> players;
+        
+        private ChatMessage(@NotNull ServerPlayerEntity player, @NotNull PlayerNameUtils.ChatName name, @NotNull ChatRooms chatRoom, @NotNull String raw) {
+            this.name = name;
+            this.title = name.getTitle();
+            this.dimension = player.dimension;
+            this.x = player.getX();
+            this.z = player.getZ();
+            this.townId = name.getTownId();
+            this.chatRoom = chatRoom;
+            this.raw = raw;
+            
+            if ((chatRoom == ChatRooms.LOCAL) || (chatRoom == ChatRooms.TOWN)) {
+                List<ServerPlayerEntity> online = ServerCore.get().getPlayerManager().getPlayerList();
+                this.players = new ArrayList<>(online.size());
+                for (ServerPlayerEntity other : online) {
+                    if (!other.removed)
+                        this.players.add(new Recipient( other ));
+                }
+            } else this.players = null;
+        }
+    }
+    private static final class Recipient {
+        private final UUID uuid;
+        private final DimensionType dimension;
+        private final double x;
+        private final double z;
+        private final UUID townId;
+        
+        private Recipient(@NotNull ServerPlayerEntity player) {
+            ClaimantPlayer claim = ((PlayerData) player).getClaim();
+            
+            this.uuid = player.getUuid();
+            this.dimension = player.dimension;
+            this.x = player.getX();
+            this.z = player.getZ();
+            this.townId = ( claim == null ? null : claim.getTownId() );
+        }
+    }
+    
+}
@@ -49,6 +49,7 @@ public final class ClaimantPlayer extends Claimant {
     private int additionalClaims;
     private final Set<ClaimantTown> townInvites = Collections.synchronizedSet(new HashSet<>());
     private ClaimantTown town;
+    private boolean online = false;
     
     private ClaimantPlayer(@NotNull UUID playerUUID) {
         super( ClaimantType.PLAYER, playerUUID );
@@ -73,8 +74,22 @@ public final class ClaimantPlayer extends Claimant {
         return town.getId();
     }
     public final void setTown(@Nullable ClaimantTown town) {
+        // Move the player between the towns online members
+        if (this.online && (this.town != town)) {
+            if (this.town != null) this.town.updateOnlineMember( this.getId(), false );
+            if (town != null) town.updateOnlineMember( this.getId(), true );
+        }
+        
         this.town = town;
         this.markDirty();
+        
+        // The players chat name shows their town
+        PlayerNameUtils.resetPlayerChatName( this.getId() );
+    }
+    public final void setOnline(boolean online) {
+        this.online = online;
+        if (this.town != null)
+            this.town.updateOnlineMember( this.getId(), online );
     }
     public final boolean inviteTown(@NotNull ClaimantTown town) {
         if (this.town != null) return false;
@@ -107,12 +122,16 @@ public final class ClaimantPlayer extends Claimant {
     /* Nickname Override */
     @Override
     public final Text getName() {
-        if (this.name == null)
-            return (this.name = this.updateName()).copy();
+        if (this.name == null) {
+            this.updateName();
+            
+            // Update the name if it is still being looked up
+            PlayerNameUtils.onPlayerNameResolved( this.getId(), () -> this.name = null );
+        }
         return this.name.copy();
     }
     public final Text updateName() {
-        return PlayerNameUtils.fetchPlayerNick( this.getId() );
+        return (this.name = PlayerNameUtils.fetchPlayerNick( this.getId() ));
     }
     
     /* Claimed chunk options */
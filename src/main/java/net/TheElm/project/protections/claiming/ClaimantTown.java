@@ -32,6 +32,7 @@ import net.TheElm.project.enums.ClaimRanks;
 import net.TheElm.project.exceptions.NbtNotFoundException;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.utilities.NbtUtils;
+import net.TheElm.project.utilities.PlayerNameUtils;
 import net.TheElm.project.utilities.TownNameUtils;
 import net.fabricmc.fabric.api.util.NbtType;
 import net.minecraft.nbt.CompoundTag;
@@ -42,13 +43,20 @@ import net.minecraft.text.Text;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 public final class ClaimantTown extends Claimant {
     
     private boolean deleted = false;
     private UUID ownerId;
     
+    // Members of the town that are currently online
+    private final Set<UUID> onlineMembers = ConcurrentHashMap.newKeySet();
+    
     protected ClaimantTown(@NotNull UUID townId) {
         super(ClaimantType.TOWN, townId);
     }
@@ -68,6 +76,12 @@ public final class ClaimantTown extends Claimant {
     }
     public final void setOwner(@NotNull UUID owner) {
         this.updateFriend( owner, ClaimRanks.OWNER );
+        
+        // Only the owner has a title in chat
+        if (this.ownerId != null)
+            PlayerNameUtils.resetPlayerChatName( this.ownerId );
+        PlayerNameUtils.resetPlayerChatName( owner );
+        
         this.ownerId = owner;
         this.markDirty();
     }
@@ -75,6 +89,19 @@ public final class ClaimantTown extends Claimant {
         return this.getFriends().size();
     }
     
+    /* Online members */
+    public final void updateOnlineMember(@NotNull UUID player, boolean online) {
+        if (online) this.onlineMembers.add( player );
+        else this.onlineMembers.remove( player );
+    }
+    @NotNull
+    public final Stream<ServerPlayerEntity> getOnlineMembers() {
+        PlayerManager playerManager = ServerCore.get().getPlayerManager();
+        return this.onlineMembers.stream()
+            .map(playerManager::getPlayer)
+            .filter(Objects::nonNull);
+    }
+    
     @Override
     public Text getName() {
         return this.name.deepCopy();
@@ -32,11 +32,13 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.TameableEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.Registry;
 import net.minecraft.world.World;
 import net.minecraft.world.dimension.DimensionType;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.UUID;
@@ -120,8 +122,34 @@ public final class EventLogger implements Runnable {
         }
     }
     private boolean saveToDatabase(TransferEvent event) {
-        System.out.println("Logging transfer!");
-        return true;
+        // Get the event information
+        World world = event.getWorld();
+        BlockPos shopPos = event.getPosition();
+        
+        // Get the dimension
+        DimensionType dimension = world.dimension.getType();
+        
+        // Save the transaction
+        try (MySQLStatement stmt = CoreMod.getSQL().prepare("INSERT INTO `logging_Transactions` ( `shopWorld`, `shopX`, `shopY`, `shopZ`, `buyer`, `seller`, `item`, `itemCount`, `price`, `transferredAt` ) VALUES ( ?, ?, ?, ?, ?, ?, ?, ?, ?, ? );")
+            .addPrepared(dimension.getRawId())
+            .addPrepared(shopPos.getX())
+            .addPrepared(shopPos.getY())
+            .addPrepared(shopPos.getZ())
+            .addPrepared(event.getBuyer())
+            .addPrepared(event.getSeller())
+            .addPrepared(Registry.ITEM.getId(event.getItem()).toString())
+            .addPrepared(event.getCount())
+            .addPrepared(event.getPrice())
+            .addPrepared(new Timestamp(event.getTimestamp()))) {
+            
+            stmt.executeUpdate();
+            
+            return true;
+        } catch (SQLException e) {
+            CoreMod.logError(e);
+            
+            return false;
+        }
     }
     private boolean saveToDatabase(LoggableEvent event) {
         if (event instanceof BlockEvent) return saveToDatabase((BlockEvent) event);
@@ -139,6 +167,10 @@ public final class EventLogger implements Runnable {
                 (blockAction.getAction() == BlockAction.BREAK) && (!SewingMachineConfig.INSTANCE.LOG_BLOCKS_BREAKING.get())
                 || (blockAction.getAction() == BlockAction.PLACE) && (!SewingMachineConfig.INSTANCE.LOG_BLOCKS_PLACING.get())
             ) return false;
+        } else if (action instanceof TransferEvent) {
+            // Transfers require a source world
+            if ((!SewingMachineConfig.INSTANCE.LOG_SHOP_TRANSACTIONS.get()) || (action.getWorld() == null))
+                return false;
         }
         // Store the log action
         return actionLog.offer(action);
@@ -165,18 +197,36 @@ public final class EventLogger implements Runnable {
         // Ignore if disabled
         if (SewingMachineConfig.INSTANCE.LOG_RESET_TIME.get() <= 0)
             return;
-    
-        try (MySQLStatement stmt = CoreMod.getSQL().prepare("DELETE FROM `logging_Blocks` WHERE `updatedAt` <= (NOW() - INTERVAL ? MINUTE)")
-            .addPrepared(SewingMachineConfig.INSTANCE.LOG_RESET_INTERVAL.get().converToMinutes(SewingMachineConfig.INSTANCE.LOG_RESET_TIME.get()))) {
         
+        long minutes = SewingMachineConfig.INSTANCE.LOG_RESET_INTERVAL.get().converToMinutes(SewingMachineConfig.INSTANCE.LOG_RESET_TIME.get());
+        
+        // Only clean the tables that were created
+        if (EventLogger.isLoggingBlocks())
+            EventLogger.doCleanup("DELETE FROM `logging_Blocks` WHERE `updatedAt` <= (NOW() - INTERVAL ? MINUTE)", minutes);
+        if (EventLogger.isLoggingTransactions())
+            EventLogger.doCleanup("DELETE FROM `logging_Transactions` WHERE `transferredAt` <= (NOW() - INTERVAL ? MINUTE)", minutes);
+    }
+    private static void doCleanup(@NotNull String query, long minutes) {
+        try (MySQLStatement stmt = CoreMod.getSQL().prepare(query)
+            .addPrepared(minutes)) {
+            
             stmt.executeUpdate();
             CoreMod.logInfo( "Database cleanup completed" );
-        
+            
         } catch (SQLException e) {
             CoreMod.logError( e );
         }
     }
     
+    // Which tables are in use
+    public static boolean isLoggingBlocks() {
+        SewingMachineConfig CONFIG = SewingMachineConfig.INSTANCE;
+        return ( CONFIG.LOG_CHUNKS_CLAIMED.get() || CONFIG.LOG_CHUNKS_UNCLAIMED.get() ) && ( CONFIG.LOG_BLOCKS_BREAKING.get() || CONFIG.LOG_BLOCKS_PLACING.get() );
+    }
+    public static boolean isLoggingTransactions() {
+        return SewingMachineConfig.INSTANCE.LOG_SHOP_TRANSACTIONS.get();
+    }
+    
     // Logging helpers
     public enum BlockAction {
         PLACE,
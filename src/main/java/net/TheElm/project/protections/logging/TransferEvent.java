@@ -26,12 +26,63 @@
 package net.TheElm.project.protections.logging;
 
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.item.Item;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.UUID;
+
 public final class TransferEvent extends LoggableEvent {
     
-    public TransferEvent(@Nullable LivingEntity actionSource) {
+    private final UUID buyer;
+    private final UUID seller;
+    private final Item item;
+    private final int count;
+    private final int price;
+    private final BlockPos shopPos;
+    private final long timestamp;
+    
+    public TransferEvent(@Nullable LivingEntity actionSource, @NotNull UUID buyer, @NotNull UUID seller, @NotNull Item item, int count, int price, @NotNull BlockPos shopPos) {
         super(actionSource);
+        this.buyer = buyer;
+        this.seller = seller;
+        this.item = item;
+        this.count = count;
+        this.price = price;
+        this.shopPos = shopPos;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    @NotNull
+    public UUID getBuyer() {
+        return this.buyer;
+    }
+    
+    @NotNull
+    public UUID getSeller() {
+        return this.seller;
+    }
+    
+    @NotNull
+    public Item getItem() {
+        return this.item;
     }
     
+    public int getCount() {
+        return this.count;
+    }
+    
+    public int getPrice() {
+        return this.price;
+    }
+    
+    @NotNull
+    public BlockPos getPosition() {
+        return this.shopPos;
+    }
+    
+    public long getTimestamp() {
+        return this.timestamp;
+    }
 }
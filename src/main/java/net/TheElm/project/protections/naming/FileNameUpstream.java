@@ -0,0 +1,80 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.protections.naming;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.TheElm.project.interfaces.NameUpstream;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Looks up names from a local JSON object of UUIDs to names.
+ * Players missing from the file have no name, so a missing file
+ * acts as a stub that never finds anybody.
+ */
+public final class FileNameUpstream implements NameUpstream {
+    
+    private final File file;
+    
+    public FileNameUpstream(@NotNull File file) {
+        this.file = file;
+    }
+    
+    @Override
+    public @NotNull Map<UUID, String> lookup(@NotNull Collection<UUID> uuids) throws IOException {
+        Map<UUID, String> names = new HashMap<>();
+        
+        // Read the file each time, so that it can be edited while running
+        JsonObject json = new JsonObject();
+        if (this.file.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8)) {
+                JsonElement element = new JsonParser().parse(reader);
+                if (element.isJsonObject())
+                    json = element.getAsJsonObject();
+            }
+        }
+        
+        for (UUID uuid : uuids) {
+            JsonElement name = json.get(uuid.toString());
+            names.put(uuid, ((name == null) || name.isJsonNull() ? null : name.getAsString()));
+        }
+        
+        return names;
+    }
+    
+}
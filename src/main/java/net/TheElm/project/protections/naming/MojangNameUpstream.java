@@ -0,0 +1,111 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.protections.naming;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.interfaces.NameUpstream;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Looks up names from the Mojang API. There is no endpoint for getting
+ * the names of many UUIDs at once, so each player in a group is its own
+ * request, made one after another.
+ */
+public final class MojangNameUpstream implements NameUpstream {
+    
+    private static final int TIMEOUT = 5000;
+    
+    @Override
+    public @NotNull Map<UUID, String> lookup(@NotNull Collection<UUID> uuids) throws IOException {
+        Map<UUID, String> names = new HashMap<>();
+        for (UUID uuid : uuids) {
+            try {
+                names.put(uuid, this.lookup(uuid));
+            } catch (IOException e) {
+                // Nothing was found, let the caller retry
+                if (names.isEmpty())
+                    throw e;
+                CoreMod.logError( e );
+                break;
+            }
+        }
+        return names;
+    }
+    
+    private String lookup(@NotNull UUID uuid) throws IOException {
+        // Log that a request is being made
+        CoreMod.logInfo( "Looking up username of " + uuid.toString() );
+        
+        HttpURLConnection connection = null;
+        try {
+            // Create the URL
+            URL url = new URL( "https://api.mojang.com/user/profiles/" + uuid.toString().replace("-", "") + "/names" );
+            
+            // Opening connection
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod( "GET" );
+            connection.setConnectTimeout( MojangNameUpstream.TIMEOUT );
+            connection.setReadTimeout( MojangNameUpstream.TIMEOUT );
+            
+            // No player exists with the UUID
+            int response = connection.getResponseCode();
+            if ((response == HttpURLConnection.HTTP_NO_CONTENT) || (response == HttpURLConnection.HTTP_NOT_FOUND)) {
+                CoreMod.logInfo( "Player name of " + uuid.toString() + " [NOT FOUND]" );
+                return null;
+            }
+            
+            // Buffered reader
+            try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)
+            )) {
+                JsonArray nameHistory = new JsonParser().parse( in ).getAsJsonArray();
+                JsonObject nameLatest = nameHistory.get( nameHistory.size() - 1 ).getAsJsonObject();
+                
+                String name = nameLatest.get( "name" ).getAsString();
+                CoreMod.logInfo( "Player name of " + uuid.toString() + " is " + name );
+                return name;
+            }
+        } finally {
+            if (connection != null)
+                connection.disconnect();
+        }
+    }
+    
+}
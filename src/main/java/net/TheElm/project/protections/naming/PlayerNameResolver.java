@@ -0,0 +1,303 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.protections.naming;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.interfaces.NameUpstream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Resolves the names of offline players away from the server thread.
+ * Resolved names (And players that have no name) are kept in a cache
+ * file so that they survive restarts, and are looked up again after
+ * they expire. Lookups queued together are handed to the upstream
+ * as one group, and the cache file is saved once after the group.
+ */
+public final class PlayerNameResolver implements Runnable {
+    
+    private static final PlayerNameResolver INSTANCE = new PlayerNameResolver();
+    private static final LinkedBlockingDeque<UUID> lookupQueue = new LinkedBlockingDeque<>();
+    
+    private static final int GROUP_SIZE = 16;
+    private static final String CACHE_FILE = "player-names.json";
+    
+    private final Map<UUID, CachedName> cache = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    
+    private final Thread thread;
+    private NameUpstream upstream = null;
+    private volatile boolean changed = false;
+    
+    private PlayerNameResolver() {
+        this.thread = new Thread(this);
+        this.thread.setName("Name resolver");
+        this.thread.setDaemon(true);
+    }
+    
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.wrapper();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                // Log and continue (Thread should not die)
+                CoreMod.logError( e );
+            }
+        }
+        
+        // Release anything still waiting
+        this.pending.forEach((uuid, future) -> future.complete(null));
+        this.save();
+    }
+    
+    @SuppressWarnings("InfiniteLoopStatement")
+    private void wrapper() throws InterruptedException {
+        while ( true ) {
+            // Wait for a lookup, and then take any others that are waiting with it
+            List<UUID> group = new ArrayList<>(GROUP_SIZE);
+            group.add(lookupQueue.takeFirst());
+            lookupQueue.drainTo(group, GROUP_SIZE - 1);
+            
+            this.lookup(group);
+            
+            // Save before waiting for the next group
+            if (lookupQueue.isEmpty())
+                this.save();
+        }
+    }
+    
+    private void lookup(@NotNull List<UUID> group) {
+        Map<UUID, String> names = Collections.emptyMap();
+        try {
+            names = this.getUpstream().lookup(group);
+        } catch (IOException e) {
+            CoreMod.logError( e );
+        } finally {
+            long now = System.currentTimeMillis();
+            for (UUID uuid : group) {
+                // Only cache what the upstream answered, failures are tried again next time
+                String name = names.get(uuid);
+                if (names.containsKey(uuid)) {
+                    this.cache.put(uuid, new CachedName(name, now));
+                    this.changed = true;
+                }
+                
+                CompletableFuture<String> future = this.pending.remove(uuid);
+                if (future != null)
+                    future.complete(name);
+            }
+        }
+    }
+    
+    private NameUpstream getUpstream() {
+        if (this.upstream == null) {
+            String type = SewingMachineConfig.INSTANCE.NAME_LOOKUP.get();
+            if ("file".equalsIgnoreCase(type))
+                this.upstream = new FileNameUpstream(new File(CoreMod.getConfDir(), "player-names-lookup.json"));
+            else if ("none".equalsIgnoreCase(type))
+                this.upstream = (uuids) -> {
+                    // Nobody has a name
+                    Map<UUID, String> names = new HashMap<>();
+                    uuids.forEach((uuid) -> names.put(uuid, null));
+                    return names;
+                };
+            else this.upstream = new MojangNameUpstream();
+        }
+        return this.upstream;
+    }
+    
+    /*
+     * Cache file
+     */
+    private void load() {
+        File file = new File(CoreMod.getConfDir(), CACHE_FILE);
+        if (!file.exists())
+            return;
+        
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            JsonObject json = new JsonParser().parse(reader).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                JsonObject value = entry.getValue().getAsJsonObject();
+                JsonElement name = value.get("name");
+                
+                CachedName cached = new CachedName(((name == null) || name.isJsonNull() ? null : name.getAsString()), value.get("time").getAsLong());
+                if (!cached.isExpired())
+                    this.cache.put(UUID.fromString(entry.getKey()), cached);
+            }
+        } catch (IOException | JsonParseException | IllegalStateException | IllegalArgumentException e) {
+            CoreMod.logError( e );
+        }
+    }
+    private synchronized void save() {
+        if (!this.changed)
+            return;
+        this.changed = false;
+        
+        JsonObject json = new JsonObject();
+        this.cache.forEach((uuid, cached) -> {
+            if (cached.isExpired())
+                return;
+            JsonObject value = new JsonObject();
+            value.addProperty("name", cached.name);
+            value.addProperty("time", cached.time);
+            json.add(uuid.toString(), value);
+        });
+        
+        Gson gson = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(CoreMod.getConfDir(), CACHE_FILE)), StandardCharsets.UTF_8)) {
+            writer.write(gson.toJson(json));
+        } catch (IOException e) {
+            CoreMod.logError( e );
+        }
+    }
+    
+    /*
+     * Static methods for getting names
+     */
+    
+    /**
+     * Get the name of a player without waiting on a lookup
+     * @param uuid The player to get the name of
+     * @return The cached name of the player, or null if the name isn't known yet
+     */
+    public static @Nullable String getCachedName(@NotNull UUID uuid) {
+        CachedName cached = INSTANCE.cache.get(uuid);
+        if ((cached == null) || cached.isExpired()) {
+            PlayerNameResolver.resolve(uuid);
+            return (cached == null ? null : cached.name);
+        }
+        return cached.name;
+    }
+    
+    /**
+     * Look up the name of a player
+     * @param uuid The player to get the name of
+     * @return A future that completes with the name of the player, or null if the player has no name
+     */
+    public static @NotNull CompletableFuture<String> resolve(@NotNull UUID uuid) {
+        CachedName cached = INSTANCE.cache.get(uuid);
+        if ((cached != null) && (!cached.isExpired()))
+            return CompletableFuture.completedFuture(cached.name);
+        
+        // Nothing to do the lookup
+        if (!INSTANCE.thread.isAlive())
+            return CompletableFuture.completedFuture(cached == null ? null : cached.name);
+        
+        // Share the lookup if it has already been queued
+        return INSTANCE.pending.computeIfAbsent(uuid, (key) -> {
+            lookupQueue.offer(key);
+            return new CompletableFuture<>();
+        });
+    }
+    
+    /**
+     * Get the lookup that is running for a player
+     * @param uuid The player being looked up
+     * @return The future of the lookup, or null if the player isn't being looked up
+     */
+    public static @Nullable CompletableFuture<String> getPending(@NotNull UUID uuid) {
+        return INSTANCE.pending.get(uuid);
+    }
+    
+    /**
+     * Store a name that is already known, such as when a player joins
+     * @param uuid The player
+     * @param name The name of the player
+     */
+    public static void store(@NotNull UUID uuid, @NotNull String name) {
+        CachedName cached = INSTANCE.cache.get(uuid);
+        if ((cached == null) || (!name.equals(cached.name)) || cached.isExpired()) {
+            INSTANCE.cache.put(uuid, new CachedName(name, System.currentTimeMillis()));
+            INSTANCE.changed = true;
+        }
+    }
+    
+    // Static method to start
+    public static PlayerNameResolver start() {
+        // Start the runnable in a new Thread
+        if (!INSTANCE.thread.isAlive()) {
+            INSTANCE.load();
+            INSTANCE.thread.start();
+        }
+        
+        return INSTANCE;
+    }
+    public static void stop() {
+        INSTANCE.thread.interrupt();
+        
+        // The thread is a daemon and may not finish saving before the server exits
+        INSTANCE.save();
+    }
+    
+    private static final class CachedName {
+        private final String name;
+        private final long time;
+        
+        private CachedName(@Nullable String name, long time) {
+            this.name = name;
+            this.time = time;
+        }
+        
+        private boolean isExpired() {
+            Duration ttl = (this.name == null ?
+                Duration.ofMinutes(SewingMachineConfig.INSTANCE.NAME_RETRY_MINUTES.get())
+                : Duration.ofDays(SewingMachineConfig.INSTANCE.NAME_CACHE_DAYS.get())
+            );
+            return System.currentTimeMillis() - this.time > ttl.toMillis();
+        }
+    }
+    
+}
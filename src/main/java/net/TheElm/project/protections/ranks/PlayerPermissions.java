@@ -0,0 +1,138 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.protections.ranks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The permission nodes of all of a players ranks, compiled into a single tree.
+ * A more specific rank overrides any rank after it, and within the same rank
+ * a "+" node overrides a "-" node.
+ */
+public final class PlayerPermissions {
+    
+    private final Node root = new Node();
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+    
+    public PlayerPermissions(@NotNull PlayerRank[] ranks) {
+        // Ranks are sorted with the most specific rank first
+        for (int i = 0; i < ranks.length; i++) {
+            int priority = ranks.length - i;
+            for (String node : ranks[i].getInheritedNodes())
+                this.addNode( node, priority );
+        }
+    }
+    
+    /*
+     * Compiling
+     */
+    private void addNode(@NotNull String node, int priority) {
+        if (node.length() < 2)
+            return;
+        
+        // Nodes must start with a "+" or "-"
+        char sign = node.charAt(0);
+        if ((sign != '+') && (sign != '-'))
+            return;
+        
+        Node current = this.root;
+        String[] parts = node.substring(1).split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            // A "*" at the end of a node applies to everything below it
+            if ((i == parts.length - 1) && "*".equals(parts[i])) {
+                current.wildcard = Grant.best( current.wildcard, new Grant( priority, sign == '+' ) );
+                return;
+            }
+            current = current.children.computeIfAbsent( parts[i], (part) -> new Node() );
+        }
+        current.exact = Grant.best( current.exact, new Grant( priority, sign == '+' ) );
+    }
+    
+    /*
+     * Checking
+     */
+    public boolean hasPermission(@NotNull String permission) {
+        Boolean result = this.results.get( permission );
+        if (result == null)
+            this.results.put( permission, result = this.resolve( permission ) );
+        return result;
+    }
+    private boolean resolve(@NotNull String permission) {
+        Grant best = this.root.wildcard;
+        Node current = this.root;
+        
+        int start = 0;
+        while (start <= permission.length()) {
+            int end = permission.indexOf( '.', start );
+            if ((current = current.children.get( permission.substring( start, (end < 0 ? permission.length() : end) ) )) == null)
+                break;
+            
+            // If the last part of the permission was reached
+            if (end < 0) {
+                best = Grant.best( best, current.exact );
+                break;
+            }
+            
+            best = Grant.best( best, current.wildcard );
+            start = end + 1;
+        }
+        
+        return (best != null) && best.allow;
+    }
+    
+    /*
+     * Tree classes
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Grant exact = null;
+        private Grant wildcard = null;
+    }
+    private static final class Grant {
+        private final int priority;
+        private final boolean allow;
+        
+        private Grant(int priority, boolean allow) {
+            this.priority = priority;
+            this.allow = allow;
+        }
+        
+        @Nullable
+        private static Grant best(@Nullable Grant a, @Nullable Grant b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            if (a.priority != b.priority)
+                return (a.priority > b.priority ? a : b);
+            return (a.allow ? a : b);
+        }
+    }
+    
+}
@@ -32,6 +32,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public final class PlayerRank implements Comparable<PlayerRank> {
     
@@ -74,18 +76,21 @@ public final class PlayerRank implements Comparable<PlayerRank> {
     public boolean addNode(String node) {
         return this.nodes.add(node);
     }
-    private boolean hasNode(String node) {
-        boolean contains = this.nodes.contains(node);
-        PlayerRank parent;
-        if ((!contains) && ((parent = RankUtils.getRank( this.parent )) != null))
-            return parent.hasNode(node);
-        return contains;
-    }
-    public boolean isAdditive(String node) {
-        return this.hasNode("+*") || this.hasNode("+" + node);
-    }
-    public boolean isSubtractive(String node) {
-        return this.hasNode("-*") || this.hasNode("-" + node);
+    /**
+     * Get the nodes of this rank and every rank that it inherits from
+     */
+    @NotNull
+    public Set<String> getInheritedNodes() {
+        Set<String> nodes = new LinkedHashSet<>();
+        Set<String> visited = new HashSet<>();
+        
+        PlayerRank rank = this;
+        while ((rank != null) && visited.add(rank.getIdentifier())) {
+            nodes.addAll(rank.nodes);
+            rank = RankUtils.getRank( rank.parent );
+        }
+        
+        return nodes;
     }
     
     /*
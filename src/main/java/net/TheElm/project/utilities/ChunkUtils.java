@@ -34,6 +34,7 @@ import net.TheElm.project.interfaces.Claim;
 import net.TheElm.project.interfaces.IClaimedChunk;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.nbt.IntArrayTag;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
@@ -45,9 +46,12 @@ import net.minecraft.world.dimension.DimensionType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Optional;
@@ -199,39 +203,74 @@ public final class ChunkUtils {
      * Claim slices between two areas
      */
     public static void claimSlices(ServerWorld world, UUID player, BlockPos firstPos, BlockPos secondPos) {
-        // Get range of values
-        BlockPos min = getMinimumPosition(firstPos, secondPos);
-        BlockPos max = getMaximumPosition(firstPos, secondPos);
-        
-        // Iterate through the blocks
-        for (int x = min.getX(); x <= max.getX(); x++) {
-            for (int z = min.getZ(); z <= max.getZ(); z++) {
-                BlockPos sliceLoc = new BlockPos( x, 0, z );
-                int slicePos = getPositionWithinChunk( sliceLoc );
-                
-                WorldChunk chunk = world.getWorldChunk( sliceLoc );
-                ((IClaimedChunk) chunk).updateSliceOwner( player, slicePos, min.getY(), max.getY() );
+        ChunkUtils.claimSlices( world, player, ChunkUtils.getSliceRanges( firstPos, secondPos ) );
+    }
+    public static void claimSlices(ServerWorld world, UUID player, Collection<SliceRange> ranges) {
+        for (SliceRange range : ranges) {
+            // Get the chunk once for every column inside of it
+            IClaimedChunk chunk = (IClaimedChunk) world.getChunk( range.getChunkX(), range.getChunkZ() );
+            
+            for (int x = range.minX; x <= range.maxX; x++) {
+                for (int z = range.minZ; z <= range.maxZ; z++)
+                    chunk.updateSliceOwner( player, x | (z << 4), range.yFrom, range.yTo );
             }
         }
     }
     public static boolean canPlayerClaimSlices(ServerWorld world, BlockPos firstPos, BlockPos secondPos) {
+        return ChunkUtils.canPlayerClaimSlices( world, ChunkUtils.getSliceRanges( firstPos, secondPos ) );
+    }
+    public static boolean canPlayerClaimSlices(ServerWorld world, Collection<SliceRange> ranges) {
+        for (SliceRange range : ranges) {
+            // Get the chunk once for every column inside of it
+            IClaimedChunk chunk = (IClaimedChunk) world.getChunk( range.getChunkX(), range.getChunkZ() );
+            
+            for (int x = range.minX; x <= range.maxX; x++) {
+                for (int z = range.minZ; z <= range.maxZ; z++) {
+                    if (chunk.getSliceOwner(x | (z << 4), range.yFrom, range.yTo).length > 0)
+                        return false;
+                }
+            }
+        }
+        
+        return true;
+    }
+    public static boolean isOwnerOfSlices(ServerWorld world, UUID owner, Collection<SliceRange> ranges) {
+        for (SliceRange range : ranges) {
+            // Every chunk of the region must belong to the owner
+            IClaimedChunk chunk = (IClaimedChunk) world.getChunk( range.getChunkX(), range.getChunkZ() );
+            if (!owner.equals(chunk.getOwner()))
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Split the area between two positions into the chunks that it covers
+     */
+    @NotNull
+    public static List<SliceRange> getSliceRanges(BlockPos firstPos, BlockPos secondPos) {
         // Get range of values
         BlockPos min = getMinimumPosition(firstPos, secondPos);
         BlockPos max = getMaximumPosition(firstPos, secondPos);
         
-        // Iterate through the blocks
-        for (int x = min.getX(); x <= max.getX(); x++) {
-            for (int z = min.getZ(); z <= max.getZ(); z++) {
-                BlockPos sliceLoc = new BlockPos( x, 0, z );
-                int slicePos = getPositionWithinChunk( sliceLoc );
-                
-                WorldChunk chunk = world.getWorldChunk( sliceLoc );
-                if (((IClaimedChunk) chunk).getSliceOwner(slicePos, min.getY(), max.getY()).length > 0)
-                    return false;
+        List<SliceRange> ranges = new ArrayList<>();
+        
+        // Iterate through the chunks
+        for (int chunkX = min.getX() >> 4; chunkX <= max.getX() >> 4; chunkX++) {
+            for (int chunkZ = min.getZ() >> 4; chunkZ <= max.getZ() >> 4; chunkZ++) {
+                ranges.add(new SliceRange(
+                    chunkX, chunkZ,
+                    Math.max( min.getX(), chunkX << 4 ) & 0xF,
+                    Math.min( max.getX(), (chunkX << 4) + 15 ) & 0xF,
+                    Math.max( min.getZ(), chunkZ << 4 ) & 0xF,
+                    Math.min( max.getZ(), (chunkZ << 4) + 15 ) & 0xF,
+                    min.getY(), max.getY()
+                ));
             }
         }
         
-        return true;
+        return Collections.unmodifiableList( ranges );
     }
     public static BlockPos getMinimumPosition(BlockPos a, BlockPos b) {
         return new BlockPos(
@@ -314,6 +353,47 @@ public final class ChunkUtils {
             return this.innerChunks.values().iterator();
         }
     }
+    public static final class SliceRange {
+        private final int chunkX;
+        private final int chunkZ;
+        
+        // Columns within the chunk (0-15) and the height of the slices
+        private final int minX;
+        private final int maxX;
+        private final int minZ;
+        private final int maxZ;
+        private final int yFrom;
+        private final int yTo;
+        
+        public SliceRange(int chunkX, int chunkZ, int minX, int maxX, int minZ, int maxZ, int yFrom, int yTo) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.yFrom = yFrom;
+            this.yTo = yTo;
+        }
+        
+        public int getChunkX() {
+            return this.chunkX;
+        }
+        public int getChunkZ() {
+            return this.chunkZ;
+        }
+        
+        @NotNull
+        public IntArrayTag toTag() {
+            return new IntArrayTag(new int[]{ this.chunkX, this.chunkZ, this.minX, this.maxX, this.minZ, this.maxZ, this.yFrom, this.yTo });
+        }
+        @Nullable
+        public static SliceRange fromTag(@NotNull int[] tag) {
+            if (tag.length != 8)
+                return null;
+            return new SliceRange( tag[0], tag[1], tag[2] & 0xF, tag[3] & 0xF, tag[4] & 0xF, tag[5] & 0xF, tag[6], tag[7] );
+        }
+    }
     public static final class InnerClaim implements Claim {
         
         @Nullable
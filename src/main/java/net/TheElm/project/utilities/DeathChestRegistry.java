@@ -0,0 +1,278 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.TheElm.project.ServerCore;
+import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.interfaces.PlayerCorpse;
+import net.fabricmc.fabric.api.util.NbtType;
+import net.minecraft.entity.Entity;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An index of player corpses by owner, so that they can be listed, expired
+ * and restored without searching through entities. Corpses stay in the index
+ * for as long as they are in the world. When a corpse expires its items are
+ * dropped on the ground. Only used from the server thread.
+ */
+public final class DeathChestRegistry {
+    
+    private static final String REGISTRY = "deathchests";
+    
+    // Corpses expire on a wheel of one minute slots
+    private static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis( 1 );
+    private static final int WHEEL_SLOTS = 64;
+    
+    private static final Map<UUID, Set<Corpse>> BY_OWNER = new HashMap<>();
+    private static final List<Set<Corpse>> WHEEL = new ArrayList<>( WHEEL_SLOTS );
+    static {
+        for (int i = 0; i < WHEEL_SLOTS; i++)
+            WHEEL.add(new LinkedHashSet<>());
+    }
+    
+    private static Map<UUID, Corpse> corpses = null;
+    private static long wheelSlot = 0;
+    private static boolean changed = false;
+    
+    private DeathChestRegistry() {}
+    
+    /**
+     * Add a corpse to the registry when it is created or loaded
+     * @param id The UUID of the corpse entity
+     * @param owner The player that died
+     * @param world The world that the corpse is in
+     * @param blockPos The position of the corpse
+     * @param createdAt When the player died
+     */
+    public static void register(@NotNull UUID id, @NotNull UUID owner, @NotNull World world, @NotNull BlockPos blockPos, long createdAt) {
+        Corpse corpse = DeathChestRegistry.getAll().get( id );
+        if (corpse == null) {
+            DeathChestRegistry.add(new Corpse( id, owner, world.dimension.getType().getRawId(), blockPos, createdAt ));
+            DeathChestRegistry.changed = true;
+        } else if (corpse.wheelIndex < 0) {
+            // Expired while unloaded, drop the items now that it is loaded again
+            DeathChestRegistry.schedule( corpse );
+        }
+    }
+    public static void remove(@NotNull UUID id) {
+        Corpse corpse = DeathChestRegistry.getAll().get( id );
+        if (corpse != null) {
+            DeathChestRegistry.forget( corpse );
+            DeathChestRegistry.changed = true;
+        }
+    }
+    
+    /**
+     * @param owner The player that died
+     * @return The corpses of the player, newest first
+     */
+    @NotNull
+    public static List<Corpse> getCorpses(@NotNull UUID owner) {
+        DeathChestRegistry.getAll();
+        Set<Corpse> owned = DeathChestRegistry.BY_OWNER.get( owner );
+        if (owned == null)
+            return Collections.emptyList();
+        
+        List<Corpse> out = new ArrayList<>( owned );
+        out.sort(Comparator.comparingLong((Corpse corpse) -> corpse.createdAt).reversed());
+        return out;
+    }
+    
+    public static long getExpireMillis() {
+        return TimeUnit.MINUTES.toMillis( SewingMachineConfig.INSTANCE.DEATH_CHEST_EXPIRE.get() );
+    }
+    
+    /**
+     * Turn the wheel, called from the server thread at the end of each tick
+     */
+    public static void tick() {
+        DeathChestRegistry.getAll();
+        long now = System.currentTimeMillis() / SLOT_MILLIS;
+        if (now <= DeathChestRegistry.wheelSlot)
+            return;
+        
+        // Only the slots passed since the last turn need to be checked
+        List<Corpse> expired = new ArrayList<>();
+        long steps = Math.min( now - DeathChestRegistry.wheelSlot, WHEEL_SLOTS );
+        for (long slot = now - steps + 1; slot <= now; slot++) {
+            Iterator<Corpse> iterator = WHEEL.get((int)(slot % WHEEL_SLOTS)).iterator();
+            while (iterator.hasNext()) {
+                Corpse corpse = iterator.next();
+                if (corpse.expireSlot > now)
+                    continue;
+                iterator.remove();
+                corpse.wheelIndex = -1;
+                expired.add( corpse );
+            }
+        }
+        DeathChestRegistry.wheelSlot = now;
+        
+        for (Corpse corpse : expired)
+            DeathChestRegistry.expire( corpse );
+    }
+    private static void expire(@NotNull Corpse corpse) {
+        DimensionType dimension = DimensionType.byRawId( corpse.dimension );
+        ServerWorld world = ( dimension == null ? null : ServerCore.get().getWorld( dimension ) );
+        
+        // Corpses in unloaded chunks stay off of the wheel until they are loaded again
+        if ((world != null) && (!world.isChunkLoaded( corpse.blockPos.getX() >> 4, corpse.blockPos.getZ() >> 4 )))
+            return;
+        
+        Entity entity = ( world == null ? null : world.getEntity( corpse.id ) );
+        if (entity instanceof PlayerCorpse) {
+            ((PlayerCorpse) entity).dropCorpseItems();
+        } else {
+            // The corpse is no longer in the world
+            DeathChestRegistry.forget( corpse );
+            DeathChestRegistry.changed = true;
+        }
+    }
+    
+    /*
+     * Save / load
+     */
+    public static void save() {
+        if ((DeathChestRegistry.corpses == null) || (!DeathChestRegistry.changed))
+            return;
+        DeathChestRegistry.changed = false;
+        
+        ListTag list = new ListTag();
+        for (Corpse corpse : DeathChestRegistry.corpses.values()) {
+            CompoundTag corpseTag = new CompoundTag();
+            corpseTag.putUuid( "id", corpse.id );
+            corpseTag.putUuid( "owner", corpse.owner );
+            corpseTag.putInt( "dimension", corpse.dimension );
+            corpseTag.put( "pos", NbtUtils.blockPosToTag( corpse.blockPos ) );
+            corpseTag.putLong( "created", corpse.createdAt );
+            list.add( corpseTag );
+        }
+        
+        CompoundTag tag = new CompoundTag();
+        tag.put( "corpses", list );
+        
+        if (!NbtUtils.writeModData( REGISTRY, tag ))
+            DeathChestRegistry.changed = true;
+    }
+    @NotNull
+    private static Map<UUID, Corpse> getAll() {
+        if (DeathChestRegistry.corpses != null)
+            return DeathChestRegistry.corpses;
+        
+        DeathChestRegistry.corpses = new HashMap<>();
+        DeathChestRegistry.wheelSlot = System.currentTimeMillis() / SLOT_MILLIS;
+        
+        ListTag list = NbtUtils.readModData( REGISTRY ).getList( "corpses", NbtType.COMPOUND );
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag corpseTag = list.getCompound( i );
+            if (!(corpseTag.containsUuid( "id" ) && corpseTag.containsUuid( "owner" )))
+                continue;
+            
+            // Corpses that expired while the server was off are handled on the next turn
+            DeathChestRegistry.add(new Corpse(
+                corpseTag.getUuid( "id" ),
+                corpseTag.getUuid( "owner" ),
+                corpseTag.getInt( "dimension" ),
+                NbtUtils.tagToBlockPos( corpseTag.getCompound( "pos" ) ),
+                corpseTag.getLong( "created" )
+            ));
+        }
+        
+        return DeathChestRegistry.corpses;
+    }
+    
+    private static void add(@NotNull Corpse corpse) {
+        DeathChestRegistry.corpses.put( corpse.id, corpse );
+        DeathChestRegistry.BY_OWNER.computeIfAbsent( corpse.owner, (owner) -> new LinkedHashSet<>() ).add( corpse );
+        DeathChestRegistry.schedule( corpse );
+    }
+    private static void schedule(@NotNull Corpse corpse) {
+        // Corpses that never expire are kept off of the wheel
+        if (corpse.expireSlot != Long.MAX_VALUE) {
+            corpse.wheelIndex = (int)(Math.max( corpse.expireSlot, DeathChestRegistry.wheelSlot + 1 ) % WHEEL_SLOTS);
+            WHEEL.get( corpse.wheelIndex ).add( corpse );
+        }
+    }
+    private static void forget(@NotNull Corpse corpse) {
+        DeathChestRegistry.corpses.remove( corpse.id );
+        
+        Set<Corpse> owned = DeathChestRegistry.BY_OWNER.get( corpse.owner );
+        if ((owned != null) && owned.remove( corpse ) && owned.isEmpty())
+            DeathChestRegistry.BY_OWNER.remove( corpse.owner );
+        
+        if (corpse.wheelIndex >= 0)
+            WHEEL.get( corpse.wheelIndex ).remove( corpse );
+        corpse.wheelIndex = -1;
+    }
+    
+    public static final class Corpse {
+        public final UUID id;
+        public final UUID owner;
+        public final int dimension;
+        public final BlockPos blockPos;
+        public final long createdAt;
+        
+        private final long expireSlot;
+        private int wheelIndex = -1;
+        
+        private Corpse(@NotNull UUID id, @NotNull UUID owner, int dimension, @NotNull BlockPos blockPos, long createdAt) {
+            this.id = id;
+            this.owner = owner;
+            this.dimension = dimension;
+            this.blockPos = blockPos;
+            this.createdAt = createdAt;
+            
+            long expire = DeathChestRegistry.getExpireMillis();
+            this.expireSlot = (expire > 0 ? (createdAt + expire) / SLOT_MILLIS : Long.MAX_VALUE);
+        }
+        
+        /**
+         * @return When the items of the corpse are dropped, or 0 if they never are
+         */
+        public long getExpiresAt() {
+            long expire = DeathChestRegistry.getExpireMillis();
+            return (expire > 0 ? this.createdAt + expire : 0);
+        }
+    }
+    
+}
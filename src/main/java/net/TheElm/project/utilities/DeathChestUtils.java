@@ -48,61 +48,99 @@ import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.EulerAngle;
+import net.minecraft.world.Heightmap;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.Collections;
-
 public final class DeathChestUtils {
     
     private DeathChestUtils() {}
     
+    /**
+     * Find the lowest open space near a death point, closest to the death point first
+     * @param world The world the player died in
+     * @param deathPoint Where the player died
+     * @return The block below the open space, or null if none was found
+     */
     @Nullable
     public static BlockPos getChestPosition(World world, BlockPos deathPoint) {
-        BlockPos out = null;
-        
         int tmp = SewingMachineConfig.INSTANCE.MAX_DEATH_SCAN.get();
         int maxI = 1 + ((tmp * tmp) * 4) + (tmp * 4);
         
-        int upper = Collections.min(Arrays.asList( 256, deathPoint.getY() + SewingMachineConfig.INSTANCE.MAX_DEATH_ELEVATION.get() ));
-        for ( int y = deathPoint.getY(); y < upper; y++ ) {
-            int x = 0;
-            int z = 0;
-            int dX = 0;
-            int dZ = -1;
+        int lower = Math.max( 0, deathPoint.getY() );
+        int upper = Math.min( 256, deathPoint.getY() + SewingMachineConfig.INSTANCE.MAX_DEATH_ELEVATION.get() );
+        int probes = SewingMachineConfig.INSTANCE.MAX_DEATH_PROBES.get();
+        
+        // The best open space so far, later columns only need to look below it
+        int bestY = upper;
+        boolean bestIsWater = false;
+        BlockPos.Mutable best = new BlockPos.Mutable();
+        BlockPos.Mutable check = new BlockPos.Mutable();
+        
+        int x = 0;
+        int z = 0;
+        int dX = 0;
+        int dZ = -1;
+        
+        WorldChunk chunk = null;
+        for (int i = 0; (i < maxI) && (probes > 0) && (bestY > lower); i++) {
+            int blockX = x + deathPoint.getX();
+            int blockZ = z + deathPoint.getZ();
+            
+            // Reuse the chunk while the spiral stays inside of it
+            if ((chunk == null) || (chunk.getPos().x != (blockX >> 4)) || (chunk.getPos().z != (blockZ >> 4)))
+                chunk = world.getWorldChunk(check.set( blockX, 0, blockZ ));
             
-            for (int i = 0; i < maxI; i++) {
-                BlockPos check = new BlockPos(x + deathPoint.getX(), y, z + deathPoint.getZ());
-                if ((out = DeathChestUtils.isValid(world, check)) != null)
-                    return out.down();
-                if ((x == z) || ((x < 0) && (x == -z)) || ((x > 0) && (x == 1 - z))) {
-                    tmp = dX;
-                    dX = -dZ;
-                    dZ = tmp;
+            // Everything above the surface is air
+            int surface = chunk.sampleHeightmap( Heightmap.Type.WORLD_SURFACE, blockX & 15, blockZ & 15 ) + 1;
+            ChunkSection[] sections = chunk.getSectionArray();
+            
+            for (int y = lower; (y < bestY) && (probes > 0); y++) {
+                boolean water = false;
+                if (y < surface) {
+                    ChunkSection section = sections[y >> 4];
+                    
+                    // Empty sections are all air
+                    if (!ChunkSection.isEmpty( section )) {
+                        probes--;
+                        Block block = section.getBlockState( blockX & 15, y & 15, blockZ & 15 ).getBlock();
+                        if (block.equals(Blocks.WATER))
+                            water = true;
+                        else if (!(block.equals(Blocks.AIR) || block.equals(Blocks.CAVE_AIR)))
+                            continue;
+                    }
                 }
-                x += dX;
-                z += dZ;
+                
+                bestY = y;
+                bestIsWater = water;
+                best.set( blockX, y, blockZ );
+                break;
+            }
+            
+            if ((x == z) || ((x < 0) && (x == -z)) || ((x > 0) && (x == 1 - z))) {
+                tmp = dX;
+                dX = -dZ;
+                dZ = tmp;
             }
+            x += dX;
+            z += dZ;
         }
         
-        return out;
-    }
-    @Nullable
-    private static BlockPos isValid(final World world, final BlockPos blockPos) {
-        Block block = world.getBlockState(blockPos).getBlock();
-        // If AIR, A-O-KAY
-        if (block.equals(Blocks.AIR) || block.equals(Blocks.CAVE_AIR))
-            return blockPos;
-        // If WATER, Sink
-        if (block.equals(Blocks.WATER)) {
-            BlockPos seaFloor = blockPos;
+        if (bestY >= upper)
+            return null;
+        
+        // If WATER, Sink to the sea floor
+        if (bestIsWater) {
             do {
-                seaFloor = seaFloor.down();
-            } while ((world.getBlockState(seaFloor).getBlock().equals(Blocks.WATER)) || (world.getFluidState(seaFloor).getFluid() == Fluids.WATER));
-            return seaFloor.up(); // Get the block ABOVE the sea floor
+                best.setOffset( Direction.DOWN );
+            } while ((best.getY() >= 0) && ((world.getBlockState( best ).getBlock().equals(Blocks.WATER)) || (world.getFluidState( best ).getFluid() == Fluids.WATER)));
+            return best.toImmutable();
         }
-        return null;
+        
+        // Get the block below the open space
+        return best.setOffset( Direction.DOWN ).toImmutable();
     }
     public static boolean createDeathChestFor(final PlayerEntity player, BlockPos deathPos, final PlayerInventory inventory) {
         World world = player.world;
@@ -188,7 +226,8 @@ public final class DeathChestUtils {
         }
         
         // Set the contents of the item stand
-        ((PlayerCorpse) stand).setCorpseData( player.getUuid(), itemsTag );
+        long createdAt = System.currentTimeMillis();
+        ((PlayerCorpse) stand).setCorpseData( player.getUuid(), itemsTag, createdAt );
         
         // Print the death chest coordinates
         if (SewingMachineConfig.INSTANCE.PRINT_DEATH_CHEST_LOC.get()) {
@@ -197,9 +236,14 @@ public final class DeathChestUtils {
         CoreMod.logInfo( "Death chest for " + playerName + " spawned at " + MessageUtils.blockPosToString( chestPos.offset(Direction.UP, 1) ));
         
         // Add the entity to the world
-        return ( skipGroundBlock || world.setBlockState( deathPos, Blocks.DIRT.getDefaultState() ) )
-            && world.spawnEntity( stand ) // Spawn the Armor stand into the World
-            && stand.addStatusEffect(new StatusEffectInstance(StatusEffects.WITHER, 1000000, 1, false, true )); // Apply a visual appearance to the Armor stand
+        if (!(( skipGroundBlock || world.setBlockState( deathPos, Blocks.DIRT.getDefaultState() ) )
+            && world.spawnEntity( stand ))) // Spawn the Armor stand into the World
+            return false;
+        
+        // Index the corpse so it can be found later
+        DeathChestRegistry.register( stand.getUuid(), player.getUuid(), world, stand.getBlockPos(), createdAt );
+        
+        return stand.addStatusEffect(new StatusEffectInstance(StatusEffects.WITHER, 1000000, 1, false, true )); // Apply a visual appearance to the Armor stand
     }
     
 }
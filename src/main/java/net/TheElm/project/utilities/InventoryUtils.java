@@ -80,9 +80,13 @@ public final class InventoryUtils {
         ServerWorld world = player.getServerWorld();
         
         // Check if enough in player inventory
-        if ( required && ( playerInventory.countInInv( item ) < count ) )
+        if ( required && ( InventoryUtils.countInMain( playerInventory, item ) < count ) )
             return false;
         
+        // Move all of the items or none of them
+        if ( required && ( chestInventory != null ) )
+            return InventoryUtils.transferExactly( world, sourcePos, playerInventory, playerInventory.main.size(), chestInventory, chestInventory.getInvSize(), item, count );
+        
         // Get stack size to take from player up to 64
         int itemStackSize = 0;
         
@@ -148,8 +152,10 @@ public final class InventoryUtils {
                                 // If none left to take, break the loop
                                 if (putable <= 0) {
                                     success = ( put > 0 );
-                                    if (success)
+                                    if (success) {
+                                        chestInventory.markDirty();
                                         world.playSound( null, sourcePos, SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.MASTER,1.0f, 1.0f );
+                                    }
                                     return success;
                                 }
                             }
@@ -160,8 +166,12 @@ public final class InventoryUtils {
         }
         
         success = ( itemStackSize > 0 );
-        if (success)
+        if (success) {
+            // Notify the chest of the changed contents
+            if ( chestInventory != null )
+                chestInventory.markDirty();
             world.playSound( null, sourcePos, SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.MASTER,1.0f, 1.0f );
+        }
         return success;
     }
     
@@ -179,6 +189,10 @@ public final class InventoryUtils {
         if (required && (chestInventory != null) && (chestInventory.countInInv( item ) < count))
             return false;
         
+        // Move all of the items or none of them
+        if ( required && ( chestInventory != null ) )
+            return InventoryUtils.transferExactly( world, sourcePos, chestInventory, chestInventory.getInvSize(), playerInventory, playerInventory.main.size(), item, count );
+        
         // Get stack size to give to player up to 64
         int stackSize = 0;
         
@@ -236,6 +250,10 @@ public final class InventoryUtils {
                         chestItem.setCount(chestItem.getCount() - collect);
                     }
                 }
+                
+                // Notify the chest of the changed contents
+                if ( stackSize > 0 )
+                    chestInventory.markDirty();
             }
         }
         
@@ -245,6 +263,119 @@ public final class InventoryUtils {
         return success;
     }
     
+    /*
+     * Move an exact amount of an item between inventories. Every slot move is
+     * planned on copies first, and nothing is changed unless all of it fits.
+     */
+    private static boolean transferExactly(@NotNull final ServerWorld world, @NotNull final BlockPos sourcePos, @NotNull final Inventory from, final int fromSize, @NotNull final Inventory to, final int toSize, @NotNull final Item item, final int count) {
+        final int maxStack = Math.min( item.getMaxCount(), to.getInvMaxStackAmount() );
+        
+        // Plan the destination contents on copies
+        final ItemStack[] planned = new ItemStack[toSize];
+        final boolean[] changed = new boolean[toSize];
+        for (int i = 0; i < toSize; i++)
+            planned[i] = to.getInvStack( i ).copy();
+        
+        final int[] taken = new int[fromSize];
+        int remaining = count;
+        
+        for (int i = 0; (i < fromSize) && (remaining > 0); i++) {
+            final ItemStack stack = from.getInvStack( i );
+            if (stack.isEmpty() || (!stack.getItem().equals( item )))
+                continue;
+            
+            int available = Math.min( stack.getCount(), remaining );
+            
+            // Top up matching stacks first, then use empty slots
+            for (int pass = 0; (pass < 2) && (available > 0); pass++) {
+                for (int j = 0; (j < toSize) && (available > 0); j++) {
+                    final ItemStack into = planned[j];
+                    int put;
+                    if (pass == 0) {
+                        if (into.isEmpty() || (!ItemStack.areItemsEqual( into, stack )) || (!ItemStack.areTagsEqual( into, stack )))
+                            continue;
+                        if ((put = Math.min( available, maxStack - into.getCount() )) <= 0)
+                            continue;
+                        into.increment( put );
+                    } else {
+                        if (!into.isEmpty())
+                            continue;
+                        put = Math.min( available, maxStack );
+                        planned[j] = stack.copy();
+                        planned[j].setCount( put );
+                    }
+                    
+                    changed[j] = true;
+                    taken[i] += put;
+                    available -= put;
+                    remaining -= put;
+                }
+            }
+        }
+        
+        // Not everything fits, so don't move anything
+        if (remaining > 0)
+            return false;
+        
+        // Apply the plan
+        for (int j = 0; j < toSize; j++) {
+            if (changed[j])
+                to.setInvStack( j, planned[j] );
+        }
+        for (int i = 0; i < fromSize; i++) {
+            if (taken[i] > 0)
+                from.getInvStack( i ).decrement( taken[i] );
+        }
+        
+        from.markDirty();
+        to.markDirty();
+        world.playSound( null, sourcePos, SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.MASTER,1.0f, 1.0f );
+        return true;
+    }
+    
+    /*
+     * Count an item in the slots that transfers take from (Not armor or offhand)
+     */
+    public static int countInMain(@NotNull final PlayerInventory inventory, @NotNull final Item item) {
+        int count = 0;
+        for (ItemStack stack : inventory.main)
+            if (stack.getItem().equals(item))
+                count += stack.getCount();
+        
+        return count;
+    }
+    
+    /*
+     * Get the amount of an item that can still fit into an inventory
+     */
+    public static int getRoomFor(@NotNull final Inventory inventory, @NotNull final Item item) {
+        final int maxStack = Math.min( item.getMaxCount(), inventory.getInvMaxStackAmount() );
+        final int invSize = inventory.getInvSize();
+        
+        int room = 0;
+        for (int i = 0; i < invSize; i++)
+            room += InventoryUtils.getRoomFor(inventory.getInvStack(i), item, maxStack);
+        
+        return room;
+    }
+    public static int getRoomFor(@NotNull final PlayerInventory inventory, @NotNull final Item item) {
+        final int maxStack = Math.min( item.getMaxCount(), inventory.getInvMaxStackAmount() );
+        
+        int room = 0;
+        // Only count the main inventory (Not armor or offhand)
+        for (ItemStack stack : inventory.main)
+            room += InventoryUtils.getRoomFor(stack, item, maxStack);
+        
+        return room;
+    }
+    private static int getRoomFor(@NotNull final ItemStack stack, @NotNull final Item item, final int maxStack) {
+        if (stack.isEmpty())
+            return maxStack;
+        if (stack.getItem().equals(item) && (!stack.hasTag()))
+            return Math.max(0, maxStack - stack.getCount());
+        return 0;
+    }
+    
     public static ItemRarity getItemRarity(ItemStack stack) {
         float total = 0.0f;
         
@@ -38,7 +38,6 @@ import net.TheElm.project.interfaces.IClaimedChunk;
 import net.TheElm.project.interfaces.MoneyHolder;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.LiteralText;
@@ -144,16 +143,12 @@ public final class LegacyConverter implements AutoCloseable {
                     ClaimantTown town = (rs.getString("townId") == null ? null : this.getTownDat(UUID.fromString(rs.getString("townId"))));
                     int money = rs.getInt("dataMoney");
                     
-                    // Get the players NBT data
-                    CompoundTag playerDat;
+                    // Store the money to the players NBT data
                     try {
-                        playerDat = NbtUtils.readOfflinePlayerData( playerUUID );
-                        
-                        // Store the NBT data to the tag
-                        playerDat.putInt(MoneyHolder.SAVE_KEY, money);
-                        
-                        // Save
-                        NbtUtils.writeOfflinePlayerData( playerUUID, playerDat );
+                        OfflinePlayerUtils.update( playerUUID, (playerDat) -> {
+                            playerDat.putInt(MoneyHolder.SAVE_KEY, money);
+                            return true;
+                        });
                     } catch (NbtNotFoundException ignored) {}
                     
                     // Get the claimant NBT
@@ -31,7 +31,6 @@ import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
 import net.minecraft.network.MessageType;
-import net.minecraft.predicate.entity.EntityPredicates;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -41,13 +40,14 @@ import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Box;
 import net.minecraft.world.World;
 import net.minecraft.world.dimension.DimensionType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class MessageUtils {
@@ -76,6 +76,37 @@ public final class MessageUtils {
         }
     }
     
+    // Get the players that receive messages in a chat room (NULL for all players)
+    @Nullable
+    public static List<ServerPlayerEntity> getChatRoomPlayers(ChatRooms chatRoom, ServerPlayerEntity player) {
+        switch (chatRoom) {
+            case LOCAL:
+                return PlayerGridUtils.getPlayersNear( player.world, player.getBlockPos(), 800 );
+            case TOWN: {
+                ClaimantPlayer claimantPlayer = ((PlayerData) player).getClaim();
+                ClaimantTown town = ( claimantPlayer == null ? null : claimantPlayer.getTown() );
+                return ( town == null ? Collections.emptyList() : town.getOnlineMembers().collect(Collectors.toList()) );
+            }
+            default:
+                return null;
+        }
+    }
+    public static void sendToPlayers(@Nullable List<ServerPlayerEntity> players, Text text) {
+        if (players == null) {
+            MessageUtils.sendToAll( text );
+            return;
+        }
+        
+        // Log to the server
+        ServerCore.get().sendMessage(text);
+        
+        // Send the message to the players
+        MessageUtils.sendChat(
+            players.stream(),
+            text
+        );
+    }
+    
     // Send a text blob from a target to a player
     public static void sendAsWhisper(@NotNull ServerCommandSource sender, @NotNull ServerPlayerEntity target, @NotNull Text text) {
         MessageUtils.sendAsWhisper( ( sender.getEntity() instanceof ServerPlayerEntity ? (ServerPlayerEntity) sender.getEntity() : null ), target, text );
@@ -105,9 +136,7 @@ public final class MessageUtils {
         ((ServerWorld) world).getServer().sendMessage(text);
         
         // Get the players in the area
-        BlockPos outerA = new BlockPos(blockPos.getX() + 800, 0, blockPos.getZ() + 800);
-        BlockPos outerB = new BlockPos(blockPos.getX() - 800, 800, blockPos.getZ() - 800);
-        List<ServerPlayerEntity> players = world.getEntities(ServerPlayerEntity.class, new Box(outerA, outerB), EntityPredicates.VALID_ENTITY);
+        List<ServerPlayerEntity> players = PlayerGridUtils.getPlayersNear(world, blockPos, 800);
         
         // Send the message to the players
         MessageUtils.sendChat(
@@ -139,12 +168,8 @@ public final class MessageUtils {
     
     // Send a translation blob to a Town
     public static void sendToTown(final ClaimantTown town, final String translationKey, final Object... objects) {
-        final MinecraftServer server = ServerCore.get();
         MessageUtils.sendSystem(
-            server.getPlayerManager().getPlayerList().stream().filter((player) -> {
-                ClaimantPlayer claimant = ((PlayerData) player).getClaim();
-                return (claimant != null) && (claimant.getTown() != null) && town.getId().equals(claimant.getTown().getId());
-            }),
+            town.getOnlineMembers(),
             translationKey,
             objects
         );
@@ -156,10 +181,7 @@ public final class MessageUtils {
         
         // Send to the players
         MessageUtils.sendChat(
-            server.getPlayerManager().getPlayerList().stream().filter((player) -> {
-                ClaimantPlayer claimant = ((PlayerData) player).getClaim();
-                return (claimant != null) && (claimant.getTown() != null) && town.getId().equals(claimant.getTown().getId());
-            }),
+            town.getOnlineMembers(),
             text
         );
     }
@@ -239,7 +261,10 @@ public final class MessageUtils {
         return MessageUtils.formatPlayerMessage(player, chatRoom, new LiteralText(raw));
     }
     public static Text formatPlayerMessage(ServerPlayerEntity player, ChatRooms chatRoom, Text text) {
-        return PlayerNameUtils.getPlayerChatDisplay( player, chatRoom )
+        return MessageUtils.formatPlayerMessage( PlayerNameUtils.getPlayerChatDisplay( player, chatRoom ), chatRoom, text );
+    }
+    public static Text formatPlayerMessage(Text display, ChatRooms chatRoom, Text text) {
+        return display
             .append(new LiteralText( ": " ).formatted(Formatting.GRAY))
             .append(text.formatted(chatRoom.getFormatting()));
     }
@@ -30,10 +30,10 @@ import net.TheElm.project.exceptions.NotEnoughMoneyException;
 import net.TheElm.project.interfaces.MoneyHolder;
 import net.minecraft.entity.data.DataTracker;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.network.ServerPlayerEntity;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
 import java.util.UUID;
 
 public final class MoneyUtils {
@@ -49,11 +49,8 @@ public final class MoneyUtils {
         if ((player = EntityUtils.getPlayer( playerId )) != null)
             return MoneyUtils.getPlayerMoney( player );
         
-        // If not online
-        CompoundTag tag = NbtUtils.readOfflinePlayerData( playerId );
-        
-        // Get the balance from the NBT tag
-        return tag.getInt( MoneyHolder.SAVE_KEY );
+        // If not online, get the balance from the NBT tag
+        return OfflinePlayerUtils.read( playerId, Collections.singleton( MoneyHolder.SAVE_KEY ), (tag) -> tag.getInt( MoneyHolder.SAVE_KEY ) );
     }
     public static int getPlayerMoney(@NotNull PlayerEntity player) {
         return player.getDataTracker().get(MoneyHolder.MONEY);
@@ -69,19 +66,15 @@ public final class MoneyUtils {
             return MoneyUtils.setPlayerMoney( player, amount );
         
         // If not online
-        CompoundTag nbt = NbtUtils.readOfflinePlayerData( playerId );
-        int balance = nbt.getInt( MoneyHolder.SAVE_KEY );
         if (amount < 0)
             return false;
         
-        // If balance is unchanged, don't attempt saving
-        if (amount == balance)
+        // Change the NBT tag (Checking the balance while the file is locked)
+        return OfflinePlayerUtils.update( playerId, (nbt) -> {
+            if (nbt.getInt( MoneyHolder.SAVE_KEY ) != amount)
+                nbt.putInt( MoneyHolder.SAVE_KEY, amount );
             return true;
-        
-        // Change the NBT tag
-        nbt.putInt( MoneyHolder.SAVE_KEY, amount );
-        
-        return NbtUtils.writeOfflinePlayerData( playerId, nbt );
+        });
     }
     public static boolean setPlayerMoney(@NotNull PlayerEntity player, int amount) {
         player.getDataTracker().set(MoneyHolder.MONEY, amount);
@@ -97,22 +90,21 @@ public final class MoneyUtils {
         if ((player = EntityUtils.getPlayer( playerId )) != null)
             return MoneyUtils.givePlayerMoney( player, amount );
         
-        // If not online
-        double updateTo = 0;
-        CompoundTag nbt = NbtUtils.readOfflinePlayerData( playerId );
-        int balance = nbt.getInt( MoneyHolder.SAVE_KEY );
-        if (((updateTo = (double)(balance + amount))) > Integer.MAX_VALUE)
-            return false;
-        
         // If balance is unchanged, don't attempt saving
-        if (updateTo == balance)
+        if (amount == 0)
             return true;
         
-        // Change the NBT tag
-        nbt.putInt( MoneyHolder.SAVE_KEY, (int)updateTo );
-        
-        // Save the data
-        return NbtUtils.writeOfflinePlayerData( playerId, nbt );
+        // If not online
+        return OfflinePlayerUtils.update( playerId, (nbt) -> {
+            int balance = nbt.getInt( MoneyHolder.SAVE_KEY );
+            double updateTo;
+            if ((updateTo = (double)(balance + amount)) > Integer.MAX_VALUE)
+                return false;
+            
+            // Change the NBT tag
+            nbt.putInt( MoneyHolder.SAVE_KEY, (int)updateTo );
+            return true;
+        });
     }
     public static boolean givePlayerMoney(@NotNull PlayerEntity player, int amount) {
         DataTracker playerDataTracker = player.getDataTracker();
@@ -134,22 +126,21 @@ public final class MoneyUtils {
         if ((player = EntityUtils.getPlayer( playerId )) != null)
             return MoneyUtils.takePlayerMoney( player, amount );
         
-        // If not online
-        double updateTo = 0;
-        CompoundTag nbt = NbtUtils.readOfflinePlayerData( playerId );
-        int balance = nbt.getInt( MoneyHolder.SAVE_KEY );
-        if (((updateTo = (double)(balance - amount))) < Integer.MIN_VALUE)
-            return false;
-        
         // If balance is unchanged, don't attempt saving
-        if (updateTo == balance)
+        if (amount == 0)
             return true;
         
-        // Change the NBT tag
-        nbt.putInt( MoneyHolder.SAVE_KEY, (int)updateTo );
-        
-        // Save the data
-        return NbtUtils.writeOfflinePlayerData( playerId, nbt );
+        // If not online
+        return OfflinePlayerUtils.update( playerId, (nbt) -> {
+            int balance = nbt.getInt( MoneyHolder.SAVE_KEY );
+            double updateTo;
+            if ((updateTo = (double)(balance - amount)) < Integer.MIN_VALUE)
+                return false;
+            
+            // Change the NBT tag
+            nbt.putInt( MoneyHolder.SAVE_KEY, (int)updateTo );
+            return true;
+        });
     }
     public static boolean takePlayerMoney(@NotNull PlayerEntity player, int amount) throws NotEnoughMoneyException {
         DataTracker playerDataTracker = player.getDataTracker();
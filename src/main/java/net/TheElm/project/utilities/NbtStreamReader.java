@@ -0,0 +1,206 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.fabricmc.fabric.api.util.NbtType;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.ShortTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads only the requested top-level keys out of a compressed NBT file.
+ * Everything else is skipped over without being read into tags, and
+ * reading stops once every key has been found.
+ */
+public final class NbtStreamReader {
+    
+    private static final int MAX_DEPTH = 512;
+    
+    private NbtStreamReader() {}
+    
+    public static @NotNull CompoundTag readCompressed(@NotNull InputStream stream, @NotNull Set<String> keys) throws IOException {
+        // Closing the reader ends the Inflater, which the caller's stream doesn't own
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)))) {
+            CompoundTag out = new CompoundTag();
+            
+            // The root must be a compound
+            if (input.readByte() != NbtType.COMPOUND)
+                throw new IOException("Root tag must be a named compound tag");
+            NbtStreamReader.skipFully(input, input.readUnsignedShort());
+            
+            Set<String> remaining = new HashSet<>(keys);
+            byte type;
+            while ((!remaining.isEmpty()) && ((type = input.readByte()) != NbtType.END)) {
+                String key = input.readUTF();
+                if (remaining.remove(key))
+                    out.put(key, NbtStreamReader.read(input, type, 0));
+                else NbtStreamReader.skip(input, type, 0);
+            }
+            
+            return out;
+        }
+    }
+    
+    private static Tag read(@NotNull DataInput input, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        switch (type) {
+            case NbtType.BYTE:
+                return ByteTag.of(input.readByte());
+            case NbtType.SHORT:
+                return ShortTag.of(input.readShort());
+            case NbtType.INT:
+                return IntTag.of(input.readInt());
+            case NbtType.LONG:
+                return LongTag.of(input.readLong());
+            case NbtType.FLOAT:
+                return FloatTag.of(input.readFloat());
+            case NbtType.DOUBLE:
+                return DoubleTag.of(input.readDouble());
+            case NbtType.BYTE_ARRAY: {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                return new ByteArrayTag(bytes);
+            }
+            case NbtType.STRING:
+                return StringTag.of(input.readUTF());
+            case NbtType.LIST: {
+                ListTag list = new ListTag();
+                byte listType = input.readByte();
+                int size = input.readInt();
+                for (int i = 0; i < size; i++)
+                    list.add(NbtStreamReader.read(input, listType, depth + 1));
+                return list;
+            }
+            case NbtType.COMPOUND: {
+                CompoundTag compound = new CompoundTag();
+                byte entryType;
+                while ((entryType = input.readByte()) != NbtType.END) {
+                    String key = input.readUTF();
+                    compound.put(key, NbtStreamReader.read(input, entryType, depth + 1));
+                }
+                return compound;
+            }
+            case NbtType.INT_ARRAY: {
+                int[] ints = new int[input.readInt()];
+                for (int i = 0; i < ints.length; i++)
+                    ints[i] = input.readInt();
+                return new IntArrayTag(ints);
+            }
+            case NbtType.LONG_ARRAY: {
+                long[] longs = new long[input.readInt()];
+                for (int i = 0; i < longs.length; i++)
+                    longs[i] = input.readLong();
+                return new LongArrayTag(longs);
+            }
+            default:
+                throw new IOException("Invalid NBT tag type " + type);
+        }
+    }
+    
+    private static void skip(@NotNull DataInput input, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        switch (type) {
+            case NbtType.BYTE:
+                NbtStreamReader.skipFully(input, 1);
+                break;
+            case NbtType.SHORT:
+                NbtStreamReader.skipFully(input, 2);
+                break;
+            case NbtType.INT:
+            case NbtType.FLOAT:
+                NbtStreamReader.skipFully(input, 4);
+                break;
+            case NbtType.LONG:
+            case NbtType.DOUBLE:
+                NbtStreamReader.skipFully(input, 8);
+                break;
+            case NbtType.BYTE_ARRAY:
+                NbtStreamReader.skipFully(input, input.readInt());
+                break;
+            case NbtType.STRING:
+                NbtStreamReader.skipFully(input, input.readUnsignedShort());
+                break;
+            case NbtType.LIST: {
+                byte listType = input.readByte();
+                int size = input.readInt();
+                for (int i = 0; i < size; i++)
+                    NbtStreamReader.skip(input, listType, depth + 1);
+                break;
+            }
+            case NbtType.COMPOUND: {
+                byte entryType;
+                while ((entryType = input.readByte()) != NbtType.END) {
+                    NbtStreamReader.skipFully(input, input.readUnsignedShort());
+                    NbtStreamReader.skip(input, entryType, depth + 1);
+                }
+                break;
+            }
+            case NbtType.INT_ARRAY:
+                NbtStreamReader.skipFully(input, input.readInt() * 4L);
+                break;
+            case NbtType.LONG_ARRAY:
+                NbtStreamReader.skipFully(input, input.readInt() * 8L);
+                break;
+            default:
+                throw new IOException("Invalid NBT tag type " + type);
+        }
+    }
+    
+    private static void skipFully(@NotNull DataInput input, long bytes) throws IOException {
+        while (bytes > 0) {
+            int skipped = input.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                // Skipping may stop early, make sure that it isn't the end
+                input.readByte();
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+    
+}
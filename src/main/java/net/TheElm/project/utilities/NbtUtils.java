@@ -48,6 +48,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public final class NbtUtils {
@@ -89,6 +90,27 @@ public final class NbtUtils {
         
         throw new NbtNotFoundException( uuid );
     }
+    public static CompoundTag readOfflinePlayerData(UUID uuid, Set<String> keys) throws NbtNotFoundException {
+        File file = Paths.get(
+            worldFolder().getAbsolutePath(),
+            "playerdata",
+            uuid.toString() + ".dat"
+        ).toFile();
+        
+        if (!file.exists()) {
+            CoreMod.logError( "Cannot read offline player data \"" + uuid.toString() + "\"; Path does not exist. Never joined the server?" );
+            throw new NbtNotFoundException( uuid );
+        }
+        
+        try (FileInputStream stream = new FileInputStream(file)) {
+            // Read only the keys from the file
+            return NbtStreamReader.readCompressed(stream, keys);
+        } catch (IOException e) {
+            CoreMod.logError( e );
+        }
+        
+        throw new NbtNotFoundException( uuid );
+    }
     public static boolean writeOfflinePlayerData(UUID uuid, CompoundTag tag) {
         return NbtUtils.writeOfflinePlayerData( uuid, tag, true );
     }
@@ -201,6 +223,51 @@ public final class NbtUtils {
         return tag;
     }
     
+    /*
+     * Mod data
+     */
+    @NotNull
+    public static CompoundTag readModData(@NotNull String name) {
+        File file = Paths.get(
+            worldFolder().getAbsolutePath(),
+            "sewing-machine",
+            name + ".dat"
+        ).toFile();
+        
+        if (file.exists()) {
+            try (FileInputStream stream = new FileInputStream( file )) {
+                
+                return NbtIo.readCompressed( stream );
+                
+            } catch (IOException e) {
+                CoreMod.logError( "Error reading " + name );
+                CoreMod.logError( e );
+            }
+        }
+        
+        return new CompoundTag();
+    }
+    public static boolean writeModData(@NotNull String name, @NotNull CompoundTag tag) {
+        File folder = new File(
+            worldFolder(),
+            "sewing-machine"
+        );
+        
+        // If the directories don't exist
+        if ((!folder.exists()) && (!folder.mkdirs()))
+            return false;
+        
+        try (FileOutputStream stream = new FileOutputStream(new File( folder, name + ".dat" ))) {
+            NbtIo.writeCompressed( tag, stream );
+            return true;
+            
+        } catch (IOException e) {
+            CoreMod.logError( e );
+        }
+        
+        return false;
+    }
+    
     /*
      * Simplifications
      */
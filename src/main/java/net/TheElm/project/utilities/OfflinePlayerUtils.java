@@ -0,0 +1,294 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.exceptions.NbtNotFoundException;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes the playerdata of offline players.
+ * Parsed files are kept in a small cache, and changes are written back
+ * from a worker thread so that several changes are written together.
+ * Files of online players belong to the server, and are never written.
+ */
+public final class OfflinePlayerUtils implements Runnable {
+    
+    private static final OfflinePlayerUtils INSTANCE = new OfflinePlayerUtils();
+    private static final LinkedBlockingDeque<Runnable> taskQueue = new LinkedBlockingDeque<>();
+    
+    private static final int CACHE_SIZE = 64;
+    private static final Object[] LOCKS = new Object[16];
+    static {
+        for (int i = 0; i < LOCKS.length; i++)
+            LOCKS[i] = new Object();
+    }
+    
+    // Recently used files, and changed files waiting to be written
+    private static final Map<UUID, CompoundTag> CACHE = new LinkedHashMap<UUID, CompoundTag>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CompoundTag> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+    private static final Map<UUID, CompoundTag> CHANGED = new ConcurrentHashMap<>();
+    
+    // Players that are online (Or are joining)
+    private static final Set<UUID> ONLINE = ConcurrentHashMap.newKeySet();
+    
+    private final Thread thread;
+    
+    private OfflinePlayerUtils() {
+        this.thread = new Thread(this);
+        this.thread.setName("Offline player data");
+        this.thread.setDaemon(true);
+    }
+    
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.wrapper();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                // Log and continue (Thread should not die)
+                CoreMod.logError( e );
+            }
+        }
+        
+        // Finish anything that is waiting
+        taskQueue.forEach(Runnable::run);
+        OfflinePlayerUtils.flush();
+    }
+    
+    @SuppressWarnings("InfiniteLoopStatement")
+    private void wrapper() throws InterruptedException {
+        while ( true ) taskQueue.takeFirst().run();
+    }
+    
+    private static void queue(@NotNull Runnable runnable) {
+        // Run on this thread if not running
+        if ((!INSTANCE.thread.isAlive()) || (!taskQueue.offer( runnable )))
+            runnable.run();
+    }
+    
+    /*
+     * Reading
+     */
+    
+    /**
+     * Read from the playerdata of an offline player
+     * @param uuid The player to read
+     * @param function Reads what is needed from the playerdata, the tag should not be modified
+     * @return The value returned by the function
+     * @throws NbtNotFoundException If the player has no playerdata
+     */
+    public static <T> T read(@NotNull UUID uuid, @NotNull Function<CompoundTag, T> function) throws NbtNotFoundException {
+        synchronized (OfflinePlayerUtils.getLock( uuid )) {
+            return function.apply(OfflinePlayerUtils.load( uuid ));
+        }
+    }    
+    /**
+     * Read some keys from the playerdata of an offline player.
+     * If the player isn't cached only the keys are read from the file
+     * @param uuid The player to read
+     * @param keys The top level keys that the function reads
+     * @param function Reads what is needed from the playerdata, the tag should not be modified
+     * @return The value returned by the function
+     * @throws NbtNotFoundException If the player has no playerdata
+     */
+    public static <T> T read(@NotNull UUID uuid, @NotNull Set<String> keys, @NotNull Function<CompoundTag, T> function) throws NbtNotFoundException {
+        synchronized (OfflinePlayerUtils.getLock( uuid )) {
+            CompoundTag tag = OfflinePlayerUtils.CHANGED.get( uuid );
+            if (tag == null) {
+                synchronized (OfflinePlayerUtils.CACHE) {
+                    tag = OfflinePlayerUtils.CACHE.get( uuid );
+                }
+            }
+            return function.apply(tag == null ? NbtUtils.readOfflinePlayerData( uuid, keys ) : tag);
+        }
+    }
+    public static <T> CompletableFuture<T> readAsync(@NotNull UUID uuid, @NotNull Function<CompoundTag, T> function) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        OfflinePlayerUtils.queue(() -> {
+            try {
+                future.complete(OfflinePlayerUtils.read( uuid, function ));
+            } catch (Exception e) {
+                future.completeExceptionally( e );
+            }
+        });
+        return future;
+    }
+    
+    /*
+     * Writing
+     */
+    
+    /**
+     * Change the playerdata of an offline player
+     * @param uuid The player to change
+     * @param change Changes the playerdata, returning false if the change could not be made
+     * @return If the change was made, false if the player is online
+     * @throws NbtNotFoundException If the player has no playerdata
+     */
+    public static boolean update(@NotNull UUID uuid, @NotNull Predicate<CompoundTag> change) throws NbtNotFoundException {
+        synchronized (OfflinePlayerUtils.getLock( uuid )) {
+            if (OfflinePlayerUtils.isOnline( uuid )) {
+                CoreMod.logError( "Cannot write offline player data \"" + uuid.toString() + "\"; Player is online." );
+                return false;
+            }
+            
+            CompoundTag tag = OfflinePlayerUtils.load( uuid );
+            if (!change.test( tag ))
+                return false;
+            
+            // Queue a write if one isn't already waiting
+            if (OfflinePlayerUtils.CHANGED.put( uuid, tag ) == null)
+                OfflinePlayerUtils.queue(() -> OfflinePlayerUtils.write( uuid ));
+            return true;
+        }
+    }
+    public static CompletableFuture<Boolean> updateAsync(@NotNull UUID uuid, @NotNull Predicate<CompoundTag> change) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        OfflinePlayerUtils.queue(() -> {
+            try {
+                future.complete(OfflinePlayerUtils.update( uuid, change ));
+            } catch (Exception e) {
+                future.completeExceptionally( e );
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Write all changed playerdata, including any that failed to write before
+     */
+    public static void flush() {
+        OfflinePlayerUtils.CHANGED.keySet().forEach(OfflinePlayerUtils::write);
+    }
+    
+    /*
+     * Online players
+     */
+    
+    /**
+     * Write any changes and stop using the file of a player that is joining
+     * @param uuid The player joining the server
+     */
+    public static void release(@NotNull UUID uuid) {
+        synchronized (OfflinePlayerUtils.getLock( uuid )) {
+            CompoundTag tag = OfflinePlayerUtils.CHANGED.remove( uuid );
+            if ((tag != null) && (!NbtUtils.writeOfflinePlayerData( uuid, tag )))
+                CoreMod.logError( "Failed to write offline player data \"" + uuid.toString() + "\" before they joined; Changes made while they were offline were lost." );
+            
+            OfflinePlayerUtils.ONLINE.add( uuid );
+            synchronized (OfflinePlayerUtils.CACHE) {
+                OfflinePlayerUtils.CACHE.remove( uuid );
+            }
+        }
+    }
+    
+    /**
+     * Allow the file of a player that has left to be used
+     * @param uuid The player that left the server
+     */
+    public static void reclaim(@NotNull UUID uuid) {
+        OfflinePlayerUtils.ONLINE.remove( uuid );
+    }
+    
+    private static boolean isOnline(@NotNull UUID uuid) {
+        return OfflinePlayerUtils.ONLINE.contains( uuid ) || (EntityUtils.getPlayer( uuid ) != null);
+    }
+    
+    /*
+     * Cache
+     */
+    private static Object getLock(@NotNull UUID uuid) {
+        return LOCKS[(uuid.hashCode() & Integer.MAX_VALUE) % LOCKS.length];
+    }
+    private static CompoundTag load(@NotNull UUID uuid) throws NbtNotFoundException {
+        // Changes that haven't been written yet
+        CompoundTag tag = OfflinePlayerUtils.CHANGED.get( uuid );
+        if (tag != null)
+            return tag;
+        
+        synchronized (OfflinePlayerUtils.CACHE) {
+            tag = OfflinePlayerUtils.CACHE.get( uuid );
+        }
+        if (tag == null) {
+            tag = NbtUtils.readOfflinePlayerData( uuid );
+            
+            // Don't cache online players, their file will be replaced
+            if (!OfflinePlayerUtils.isOnline( uuid )) {
+                synchronized (OfflinePlayerUtils.CACHE) {
+                    OfflinePlayerUtils.CACHE.put( uuid, tag );
+                }
+            }
+        }
+        return tag;
+    }
+    private static void write(@NotNull UUID uuid) {
+        synchronized (OfflinePlayerUtils.getLock( uuid )) {
+            CompoundTag tag = OfflinePlayerUtils.CHANGED.remove( uuid );
+            if ((tag != null) && (!NbtUtils.writeOfflinePlayerData( uuid, tag ))) {
+                // Keep the changes, and try again on the next flush
+                OfflinePlayerUtils.CHANGED.putIfAbsent( uuid, tag );
+                CoreMod.logError( "Failed to write offline player data \"" + uuid.toString() + "\"; Retrying on the next save." );
+            }
+        }
+    }
+    
+    // Static method to start
+    public static OfflinePlayerUtils start() {
+        // Start the runnable in a new Thread
+        if (!INSTANCE.thread.isAlive())
+            INSTANCE.thread.start();
+        
+        return INSTANCE;
+    }
+    public static void stop() {
+        INSTANCE.thread.interrupt();
+        
+        // The thread is a daemon and may not finish writing before the server exits
+        Runnable task;
+        while ((task = taskQueue.pollFirst()) != null)
+            task.run();
+        OfflinePlayerUtils.flush();
+    }
+    
+}
@@ -0,0 +1,158 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps online players sorted into a grid of 64x64 block cells for each dimension,
+ * so that finding players near a position only looks at the nearby cells
+ */
+public final class PlayerGridUtils {
+    
+    // Cells are 4x4 chunks
+    private static final int CELL_SHIFT = 6;
+    
+    private static final Map<DimensionType, Map<Long, Set<ServerPlayerEntity>>> GRID = new ConcurrentHashMap<>();
+    private static final Map<DimensionType, Set<ServerPlayerEntity>> DIMENSIONS = new ConcurrentHashMap<>();
+    private static final Map<UUID, GridEntry> ENTRIES = new ConcurrentHashMap<>();
+    
+    private PlayerGridUtils() {}
+    
+    /*
+     * Updating positions
+     */
+    public static void update(@NotNull ServerPlayerEntity player) {
+        DimensionType dimension = player.getEntityWorld().dimension.getType();
+        BlockPos blockPos = player.getBlockPos();
+        long cell = PlayerGridUtils.getCell( blockPos.getX() >> CELL_SHIFT, blockPos.getZ() >> CELL_SHIFT );
+        
+        // Only move the player when they've changed cells (Or respawned as a new entity)
+        GridEntry entry = PlayerGridUtils.ENTRIES.get( player.getUuid() );
+        if ((entry != null) && (entry.player == player) && (entry.dimension == dimension) && (entry.cell == cell))
+            return;
+        
+        if (entry != null)
+            PlayerGridUtils.removeEntry( entry );
+        
+        PlayerGridUtils.GRID.computeIfAbsent( dimension, (type) -> new ConcurrentHashMap<>() )
+            .computeIfAbsent( cell, (key) -> ConcurrentHashMap.newKeySet() )
+            .add( player );
+        PlayerGridUtils.DIMENSIONS.computeIfAbsent( dimension, (type) -> ConcurrentHashMap.newKeySet() )
+            .add( player );
+        PlayerGridUtils.ENTRIES.put( player.getUuid(), new GridEntry( player, dimension, cell ) );
+    }
+    public static void remove(@NotNull ServerPlayerEntity player) {
+        GridEntry entry = PlayerGridUtils.ENTRIES.remove( player.getUuid() );
+        if (entry != null)
+            PlayerGridUtils.removeEntry( entry );
+    }
+    private static void removeEntry(@NotNull GridEntry entry) {
+        Map<Long, Set<ServerPlayerEntity>> cells = PlayerGridUtils.GRID.get( entry.dimension );
+        Set<ServerPlayerEntity> players;
+        if ((cells != null) && ((players = cells.get( entry.cell )) != null)) {
+            players.remove( entry.player );
+            if (players.isEmpty())
+                cells.remove( entry.cell );
+        }
+        if ((players = PlayerGridUtils.DIMENSIONS.get( entry.dimension )) != null)
+            players.remove( entry.player );
+    }
+    
+    /*
+     * Searching
+     */
+    
+    /**
+     * Get the players in the same dimension as the world that are within radius blocks (On the X and Z axis) of the position
+     */
+    @NotNull
+    public static List<ServerPlayerEntity> getPlayersNear(@NotNull World world, @NotNull BlockPos blockPos, int radius) {
+        DimensionType dimension = world.dimension.getType();
+        Map<Long, Set<ServerPlayerEntity>> cells = PlayerGridUtils.GRID.get( dimension );
+        Set<ServerPlayerEntity> dimensionPlayers = PlayerGridUtils.DIMENSIONS.get( dimension );
+        if ((cells == null) || (dimensionPlayers == null))
+            return Collections.emptyList();
+        
+        int minX = (blockPos.getX() - radius) >> CELL_SHIFT;
+        int maxX = (blockPos.getX() + radius) >> CELL_SHIFT;
+        int minZ = (blockPos.getZ() - radius) >> CELL_SHIFT;
+        int maxZ = (blockPos.getZ() + radius) >> CELL_SHIFT;
+        
+        List<ServerPlayerEntity> players = new ArrayList<>();
+        
+        // If there are fewer players than cells to check, check the players instead
+        if (((long)(maxX - minX + 1) * (maxZ - minZ + 1)) > dimensionPlayers.size()) {
+            PlayerGridUtils.addWithin( players, dimensionPlayers, blockPos, radius );
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    Set<ServerPlayerEntity> cell = cells.get( PlayerGridUtils.getCell( x, z ) );
+                    if (cell != null)
+                        PlayerGridUtils.addWithin( players, cell, blockPos, radius );
+                }
+            }
+        }
+        
+        return players;
+    }
+    private static void addWithin(@NotNull List<ServerPlayerEntity> out, @NotNull Collection<ServerPlayerEntity> players, @NotNull BlockPos blockPos, int radius) {
+        for (ServerPlayerEntity player : players) {
+            if ((!player.removed) && (Math.abs(player.getX() - blockPos.getX()) <= radius) && (Math.abs(player.getZ() - blockPos.getZ()) <= radius))
+                out.add( player );
+        }
+    }
+    
+    private static long getCell(int x, int z) {
+        return ((long)x << 32) | (z & 0xFFFFFFFFL);
+    }
+    
+    private static final class GridEntry {
+        private final ServerPlayerEntity player;
+        private final DimensionType dimension;
+        private final long cell;
+        
+        private GridEntry(@NotNull ServerPlayerEntity player, @NotNull DimensionType dimension, long cell) {
+            this.player = player;
+            this.dimension = dimension;
+            this.cell = cell;
+        }
+    }
+    
+}
@@ -25,9 +25,6 @@
 
 package net.TheElm.project.utilities;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.mojang.authlib.GameProfile;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.ServerCore;
@@ -38,6 +35,7 @@ import net.TheElm.project.interfaces.Nicknamable;
 import net.TheElm.project.interfaces.PlayerData;
 import net.TheElm.project.protections.claiming.ClaimantPlayer;
 import net.TheElm.project.protections.claiming.ClaimantTown;
+import net.TheElm.project.protections.naming.PlayerNameResolver;
 import net.fabricmc.fabric.api.util.NbtType;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.MinecraftServer;
@@ -52,15 +50,23 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class PlayerNameUtils {
     
+    // Nicknames of players (Empty for none), so that offline player files aren't read
+    private static final String NICKNAME_INDEX = "nicknames";
+    private static volatile Map<UUID, String> nicknames = null;
+    private static volatile boolean nicknamesChanged = false;
+    
+    // The parts of each players chat name that only change with their nickname or town
+    private static final Map<UUID, ChatName> CHAT_NAMES = new ConcurrentHashMap<>();
+    
     private PlayerNameUtils() {}
     
     public static Text getServerChatDisplay(ChatRooms chatRoom) {
@@ -70,7 +76,20 @@ public final class PlayerNameUtils {
             .append(new LiteralText("Server").formatted(Formatting.GRAY));
     }
     public static Text getPlayerChatDisplay(@NotNull ServerPlayerEntity player, ChatRooms chatRoom) {
-        return PlayerNameUtils.getPlayerChatDisplay( player, null, chatRoom );
+        return PlayerNameUtils.getPlayerChatName( player ).toDisplay( player.dimension, chatRoom );
+    }
+    
+    /**
+     * Get the cached parts of a players chat name, must be called from the server thread
+     * @param player The player sending a message
+     * @return The name, town and town title of the player
+     */
+    @NotNull
+    public static ChatName getPlayerChatName(@NotNull ServerPlayerEntity player) {
+        return PlayerNameUtils.CHAT_NAMES.computeIfAbsent( player.getUuid(), (uuid) -> new ChatName( player ) );
+    }
+    public static void resetPlayerChatName(@NotNull UUID uuid) {
+        PlayerNameUtils.CHAT_NAMES.remove( uuid );
     }
     public static Text getPlayerChatDisplay(@NotNull ServerPlayerEntity player, @Nullable String prepend, ChatRooms chatRoom, Formatting... playerColors) {
         ClaimantPlayer playerPermissions = ((PlayerData) player).getClaim();
@@ -180,6 +199,32 @@ public final class PlayerNameUtils {
         return PlayerNameUtils.fetchPlayerName( uuid );
     }
     public static Text fetchPlayerName(@NotNull UUID uuid) {
+        Text playerName;
+        if ((playerName = PlayerNameUtils.getKnownPlayerName( uuid )) != null)
+            return playerName;
+        
+        // Look up the name in the background (Never on the calling thread)
+        String cachedName = PlayerNameResolver.getCachedName( uuid );
+        return new LiteralText( cachedName == null ? "Unknown player" : cachedName );
+    }
+    public static Text fetchPlayerName(@NotNull UUID uuid, @NotNull Collection<CompletableFuture<?>> pending) {
+        Text playerName;
+        if ((playerName = PlayerNameUtils.getKnownPlayerName( uuid )) != null)
+            return playerName;
+        
+        // Fill in the name once it has been looked up
+        final Text out = new LiteralText( "" );
+        pending.add(PlayerNameResolver.resolve( uuid )
+            .thenAccept((name) -> out.append( name == null ? "Unknown player" : name )));
+        return out;
+    }
+    public static void onPlayerNameResolved(@NotNull UUID uuid, @NotNull Runnable runnable) {
+        CompletableFuture<String> future = PlayerNameResolver.getPending( uuid );
+        if (future != null)
+            future.thenRun(() -> ServerCore.get().execute( runnable ));
+    }
+    @Nullable
+    private static Text getKnownPlayerName(@NotNull UUID uuid) {
         // If we're looking up UUID 0, 0 (Spawn) don't try to do a lookup
         if ( uuid.equals( CoreMod.spawnID ) )
             return new LiteralText(SewingMachineConfig.INSTANCE.NAME_SPAWN.get());
@@ -191,53 +236,9 @@ public final class PlayerNameUtils {
         
         String cachedName;
         if (((cachedName = getCachedPlayerName(uuid)) != null) && (!StringUtils.isBlank(cachedName)))
+            return new LiteralText( cachedName );
         
-        // Log that a request is being made
-        CoreMod.logInfo( "Looking up username of " + uuid.toString() );
-        
-        HttpURLConnection connection = null;
-        try {
-            // Create the URL
-            URL url = new URL( "https://api.mojang.com/user/profiles/" + PlayerNameUtils.stripUUID( uuid ) + "/names" );
-            
-            // Opening connection 
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod( "GET" );
-            
-            // Buffered reader
-            try (BufferedReader in = new BufferedReader(
-                new InputStreamReader(connection.getInputStream())
-            )) {
-                String line;
-                StringBuilder content = new StringBuilder();
-                while ((line = in.readLine()) != null) {
-                    content.append(line);
-                }
-                
-                JsonArray nameHistory = new JsonParser().parse( content.toString() ).getAsJsonArray();
-                JsonObject nameLatest = nameHistory.get( nameHistory.size() - 1 ).getAsJsonObject();
-                
-                playerName = new LiteralText( nameLatest.get( "name" ).getAsString() );
-                
-                // Save the player name to the cache
-                ServerCore.get().getUserCache().add(new GameProfile(
-                    uuid,
-                    playerName.getString()
-                ));
-            }
-            
-        } catch (IOException e) {
-            CoreMod.logError( e );
-            
-        } finally {
-            if (connection != null)
-                connection.disconnect();
-            if ( playerName == null )
-                CoreMod.logInfo( "Player name of " + uuid.toString() + " [LOOKUP FAILED]" );
-            else CoreMod.logInfo( "Player name of " + uuid.toString() + " is " + playerName.getString() );
-        }
-        
-        return ( playerName == null ? new LiteralText("Unknown player") : playerName );
+        return null;
     }
     @Nullable
     private static Text getOnlinePlayerName(@NotNull UUID uuid) {
@@ -257,16 +258,124 @@ public final class PlayerNameUtils {
     }
     @Nullable
     private static Text getOfflinePlayerNickname(@NotNull UUID uuid) {
-        try {
-            CompoundTag tag = NbtUtils.readOfflinePlayerData(uuid);
-            if ((tag != null) && tag.contains("PlayerNickname", NbtType.STRING))
-                return Text.Serializer.fromJson(tag.getString("PlayerNickname"));
-        } catch (NbtNotFoundException ignored) {}
-        return null;
+        // Online players have their nickname loaded
+        ServerPlayerEntity player = ServerCore.get().getPlayerManager().getPlayer( uuid );
+        if (player != null)
+            return ((Nicknamable) player).getPlayerNickname();
+        
+        // Check the index before reading the players file
+        Map<UUID, String> nicknames = PlayerNameUtils.getNicknameIndex();
+        String json = nicknames.get( uuid );
+        if (json == null) {
+            json = "";
+            try {
+                json = OfflinePlayerUtils.read(uuid, Collections.singleton("PlayerNickname"), (tag) -> tag.contains("PlayerNickname", NbtType.STRING) ? tag.getString("PlayerNickname") : "");
+            } catch (NbtNotFoundException ignored) {}
+            
+            // Remember the nickname (Or that there isn't one)
+            nicknames.put( uuid, json );
+            PlayerNameUtils.nicknamesChanged = true;
+        }
+        return json.isEmpty() ? null : Text.Serializer.fromJson( json );
     }
     
-    private static String stripUUID(@NotNull UUID uuid) {
-        return uuid.toString().replace("-", "");
+    /*
+     * Nickname index
+     */
+    public static void updatePlayerNickname(@NotNull UUID uuid, @Nullable Text nickname) {
+        String json = ( nickname == null ? "" : Text.Serializer.toJson( nickname ) );
+        if (!json.equals(PlayerNameUtils.getNicknameIndex().put( uuid, json )))
+            PlayerNameUtils.nicknamesChanged = true;
+    }
+    public static void saveNicknameIndex() {
+        if ((PlayerNameUtils.nicknames == null) || (!PlayerNameUtils.nicknamesChanged))
+            return;
+        PlayerNameUtils.nicknamesChanged = false;
+        
+        CompoundTag tag = new CompoundTag();
+        PlayerNameUtils.nicknames.forEach((uuid, json) -> tag.putString( uuid.toString(), json ));
+        if (!NbtUtils.writeModData( NICKNAME_INDEX, tag ))
+            PlayerNameUtils.nicknamesChanged = true;
+    }
+    private static synchronized Map<UUID, String> getNicknameIndex() {
+        if (PlayerNameUtils.nicknames == null) {
+            Map<UUID, String> index = new ConcurrentHashMap<>();
+            CompoundTag tag = NbtUtils.readModData( NICKNAME_INDEX );
+            for (String key : tag.getKeys()) {
+                try {
+                    index.put( UUID.fromString( key ), tag.getString( key ) );
+                } catch (IllegalArgumentException ignored) {}
+            }
+            PlayerNameUtils.nicknames = index;
+        }
+        return PlayerNameUtils.nicknames;
+    }
+    
+    /*
+     * Cached chat names
+     */
+    public static final class ChatName {
+        private final Text name;
+        private final ClaimantTown town;
+        private final Text townName;
+        private final boolean townOwner;
+        
+        private ChatName(@NotNull ServerPlayerEntity player) {
+            ClaimantPlayer playerPermissions = ((PlayerData) player).getClaim();
+            
+            this.name = PlayerNameUtils.getPlayerDisplayName( player );
+            this.town = ( playerPermissions == null ? null : playerPermissions.getTown() );
+            this.townName = ( this.town == null ? null : this.town.getName().formatted(Formatting.DARK_AQUA) );
+            this.townOwner = ( this.town != null ) && player.getUuid().equals( this.town.getOwner() );
+        }
+        
+        @Nullable
+        public UUID getTownId() {
+            return ( this.town == null ? null : this.town.getId() );
+        }
+        
+        /**
+         * The title changes with the size of the town, so it is read for each message from the server thread
+         * @return The owner title of the players town, or null if the player doesn't own a town
+         */
+        @Nullable
+        public String getTitle() {
+            return ( this.townOwner ? this.town.getOwnerTitle() : null );
+        }
+        
+        public Text toDisplay(@NotNull DimensionType dimension, @NotNull ChatRooms chatRoom) {
+            return this.toDisplay( dimension, chatRoom, this.getTitle() );
+        }
+        
+        /**
+         * Build a new display for a message, the cached parts are copied so this can be called from any thread
+         * @param dimension The dimension the player is in
+         * @param chatRoom The chat room the message is sent to
+         * @param title The owner title of the players town
+         * @return The display name of the player, for a message to be appended to
+         */
+        public Text toDisplay(@NotNull DimensionType dimension, @NotNull ChatRooms chatRoom, @Nullable String title) {
+            // Add the players world
+            Text format = new LiteralText( "[" ).formatted(chatRoom.getFormatting());
+            if (!chatRoom.equals(ChatRooms.TOWN)) format.append( PlayerNameUtils.formattedWorld( dimension ) );
+            else format.append( formattedChat( chatRoom ) );
+            
+            // If the player is in a town, prepend the town name
+            if (SewingMachineConfig.INSTANCE.CHAT_SHOW_TOWNS.get() && (this.townName != null)) {
+                format.append( "|" )
+                    .append( this.townName.deepCopy() )
+                    .append( "] " );
+                
+                // Add the players title
+                if (title != null)
+                    format.append( CasingUtils.Sentence( title ) + " " );
+            } else {
+                format.append( "] " );
+            }
+            
+            // Append the player name and return
+            return format.append( this.name.deepCopy() );
+        }
     }
     
 }
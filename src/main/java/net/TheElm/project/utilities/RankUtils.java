@@ -25,7 +25,6 @@
 
 package net.TheElm.project.utilities;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -43,6 +42,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -50,7 +50,7 @@ import java.util.Map;
 
 public final class RankUtils {
     
-    private static HashMap<String, PlayerRank> RANKS = new LinkedHashMap<>();
+    private static volatile RankConfig CONFIG = new RankConfig(Collections.emptyMap(), Collections.emptyMap());
     
     private RankUtils() {}
     
@@ -60,7 +60,7 @@ public final class RankUtils {
     @Nullable
     public static PlayerRank getRank(@Nullable String identifier) {
         if (identifier == null) return null;
-        return RankUtils.RANKS.get( identifier );
+        return RankUtils.CONFIG.ranks.get( identifier );
     }
     
     /*
@@ -76,103 +76,127 @@ public final class RankUtils {
         return ((PlayerData) player).getRanks();
     }
     public static PlayerRank[] loadPlayerRanks(@NotNull GameProfile profile) {
-        String uuid = profile.getId().toString();
-        try {
-            JsonObject json = RankUtils.filePlayers();
-            List<PlayerRank> ranks = new ArrayList<>();
-            
-            // Everyone is a "GLOBAL"
-            PlayerRank rank = getRank("*");
-            if (rank != null) ranks.add(rank);
-            
-            // Get all the players listed ranks
-            JsonElement list;
-            if ((json.has(uuid) && ((list = json.get(uuid)) instanceof JsonArray)) || (json.has("*") && ((list = json.get("*")) instanceof JsonArray))) {
-                for (JsonElement listElement : list.getAsJsonArray()) {
-                    String identifier = listElement.getAsString();
-                    if (!"*".equals(identifier)) {
-                        rank = getRank(identifier);
-                        if (rank != null) ranks.add(rank);
-                    }
+        RankConfig config = RankUtils.CONFIG;
+        List<PlayerRank> ranks = new ArrayList<>();
+        
+        // Everyone is a "GLOBAL"
+        PlayerRank rank = config.ranks.get("*");
+        if (rank != null) ranks.add(rank);
+        
+        // Get all the players listed ranks
+        List<String> list;
+        if (((list = config.players.get(profile.getId().toString())) != null) || ((list = config.players.get("*")) != null)) {
+            for (String identifier : list) {
+                if (!"*".equals(identifier)) {
+                    rank = config.ranks.get(identifier);
+                    if (rank != null) ranks.add(rank);
                 }
             }
-            
-            // Sort the ranks in ascending order
-            ranks.sort(PlayerRank::compareTo);
-            
-            // Return as a primitive array
-            return ranks.toArray(new PlayerRank[0]);
-        } catch (FileNotFoundException e) {
-            return new PlayerRank[0];
         }
-    }
-    public static boolean hasPermission(@NotNull ServerPlayerEntity player, String permission) {
-        boolean result = false;
         
-        PlayerRank[] ranks = RankUtils.getPlayerRanks(player);
-        for (int i = (ranks.length - 1); i >= 0; --i) {
-            PlayerRank rank = ranks[i];
-            
-            if (rank.isAdditive(permission))
-                result = true;
-            else if (rank.isSubtractive(permission))
-                result = false;
-        }
+        // Sort the ranks in ascending order
+        ranks.sort(PlayerRank::compareTo);
         
-        return result;
+        // Return as a primitive array
+        return ranks.toArray(new PlayerRank[0]);
+    }
+    public static boolean hasPermission(@NotNull ServerPlayerEntity player, String permission) {
+        return ((PlayerData) player).getPermissions().hasPermission( permission );
     }
     
     public static void init() {
         // Check if enabled in the config
         if (!SewingMachineConfig.INSTANCE.HANDLE_PERMISSIONS.get())
             return;
-        RankUtils.RANKS.clear();
         
-        // Read from the `ranks.json` file
+        // Read from the `permissions.json` file
         try {
-            JsonObject object = RankUtils.fileRanks();
-            for (Map.Entry<String, JsonElement> list : object.entrySet()) {
-                // Get the pair information
-                String identifier = list.getKey();
-                JsonElement tmp = list.getValue();
-                if (!tmp.isJsonObject()) continue;
-                
-                // Get the rank information
-                JsonObject rankData = tmp.getAsJsonObject();
-                
-                // Get how the rank should be displayed
-                String display = null;
-                if (rankData.has( "display" ) && (tmp = (rankData.get("display"))).getAsJsonPrimitive().isString())
-                    display = tmp.getAsString();
-                
-                // Create the rank
-                PlayerRank rank = new PlayerRank( identifier, display );
-                
-                // Set the rank parent
-                if (rankData.has("inherit") && (tmp = (rankData.get("inherit"))).getAsJsonPrimitive().isString())
-                    rank.setParent( tmp.getAsString() );
-                
-                // Add the ranks permissions
-                if (rankData.has("permissions") && (tmp = rankData.get("permissions")).isJsonArray()) {
-                    for (JsonElement node : tmp.getAsJsonArray()) {
-                        if (node.getAsJsonPrimitive().isString())
-                            rank.addNode(node.getAsString());
-                    }
-                }
-                
-                RANKS.put( identifier, rank );
-            }
+            RankUtils.CONFIG = RankUtils.readConfig();
         } catch (FileNotFoundException ignored) {}
     }
-    private static JsonObject fileRanks() throws FileNotFoundException {
+    
+    /**
+     * Read the `permissions.json` file again, and make online players use the new ranks
+     * @return The number of ranks that were loaded
+     * @throws FileNotFoundException If the file doesn't exist
+     */
+    public static int reload() throws FileNotFoundException {
+        RankConfig config = RankUtils.readConfig();
+        RankUtils.CONFIG = config;
+        
+        // Players will compile their permissions again when next checked
+        for (ServerPlayerEntity player : ServerCore.get().getPlayerManager().getPlayerList())
+            ((PlayerData) player).resetRanks();
+        
+        return config.ranks.size();
+    }
+    
+    private static RankConfig readConfig() throws FileNotFoundException {
         JsonObject main = RankUtils.fileLoad();
+        return new RankConfig( RankUtils.readRanks( main ), RankUtils.readPlayers( main ) );
+    }
+    private static Map<String, PlayerRank> readRanks(@NotNull JsonObject main) {
+        Map<String, PlayerRank> ranks = new LinkedHashMap<>();
+        
+        JsonObject object = RankUtils.fileRanks( main );
+        for (Map.Entry<String, JsonElement> list : object.entrySet()) {
+            // Get the pair information
+            String identifier = list.getKey();
+            JsonElement tmp = list.getValue();
+            if (!tmp.isJsonObject()) continue;
+            
+            // Get the rank information
+            JsonObject rankData = tmp.getAsJsonObject();
+            
+            // Get how the rank should be displayed
+            String display = null;
+            if (rankData.has( "display" ) && (tmp = (rankData.get("display"))).getAsJsonPrimitive().isString())
+                display = tmp.getAsString();
+            
+            // Create the rank
+            PlayerRank rank = new PlayerRank( identifier, display );
+            
+            // Set the rank parent
+            if (rankData.has("inherit") && (tmp = (rankData.get("inherit"))).getAsJsonPrimitive().isString())
+                rank.setParent( tmp.getAsString() );
+            
+            // Add the ranks permissions
+            if (rankData.has("permissions") && (tmp = rankData.get("permissions")).isJsonArray()) {
+                for (JsonElement node : tmp.getAsJsonArray()) {
+                    if (node.getAsJsonPrimitive().isString())
+                        rank.addNode(node.getAsString());
+                }
+            }
+            
+            ranks.put( identifier, rank );
+        }
+        
+        return Collections.unmodifiableMap( ranks );
+    }
+    private static Map<String, List<String>> readPlayers(@NotNull JsonObject main) {
+        Map<String, List<String>> players = new HashMap<>();
+        
+        JsonObject object = RankUtils.filePlayers( main );
+        for (Map.Entry<String, JsonElement> player : object.entrySet()) {
+            if (!player.getValue().isJsonArray()) continue;
+            
+            // Get the identifiers of the players ranks
+            List<String> identifiers = new ArrayList<>();
+            for (JsonElement listElement : player.getValue().getAsJsonArray())
+                identifiers.add(listElement.getAsString());
+            
+            players.put( player.getKey(), Collections.unmodifiableList( identifiers ) );
+        }
+        
+        return Collections.unmodifiableMap( players );
+    }
+    private static JsonObject fileRanks(@NotNull JsonObject main) {
         JsonElement ranks;
         if (main.has("ranks") && ((ranks = main.get("ranks")) instanceof JsonObject))
             return (JsonObject) ranks;
         return new JsonObject();
     }
-    private static JsonObject filePlayers() throws FileNotFoundException {
-        JsonObject main = RankUtils.fileLoad();
+    private static JsonObject filePlayers(@NotNull JsonObject main) {
         JsonElement players;
         if (main.has("players") && ((players = main.get("players")) instanceof JsonObject))
             return (JsonObject) players;
@@ -190,4 +214,17 @@ public final class RankUtils {
     }
     static { init(); }
     
+    /*
+     * Parsed permissions file
+     */
+    private static final class RankConfig {
+        private final Map<String, PlayerRank> ranks;
+        private final Map<String, List<String>> players;
+        
+        private RankConfig(@NotNull Map<String, PlayerRank> ranks, @NotNull Map<String, List<String>> players) {
+            this.ranks = ranks;
+            this.players = players;
+        }
+    }
+    
 }
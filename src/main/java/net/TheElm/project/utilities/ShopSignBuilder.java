@@ -94,6 +94,10 @@ public final class ShopSignBuilder {
     public Identifier getItem() {
         return this.tradeItemIdentifier;
     }
+    @Nullable
+    public Item getTradeItem() {
+        return this.tradeItem;
+    }
     public UUID shopOwner() {
         return this.ownerUUID;
     }
@@ -117,6 +121,9 @@ public final class ShopSignBuilder {
     public void shopOwner(UUID newOwner) {
         this.ownerUUID = newOwner;
     }
+    public void shopType(ShopSigns newType) {
+        this.signType = newType;
+    }
     public void regionPositioning(BlockPos first, BlockPos second) {
         this.regionPosA = first;
         this.regionPosB = second;
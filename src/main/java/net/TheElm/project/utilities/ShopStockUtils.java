@@ -0,0 +1,111 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.entity.LootableContainerBlockEntity;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+public final class ShopStockUtils {
+    
+    // Cached item counts of shop containers, keyed by the container position
+    private static final Map<World, Map<BlockPos, ContainerStock>> STOCK_CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+    
+    private ShopStockUtils() {}
+    
+    /*
+     * Get the stock of a shop container
+     */
+    public static int countInInv(@NotNull final World world, @NotNull final LootableContainerBlockEntity container, @Nullable Inventory inventory, @NotNull final Item item) {
+        final BlockPos containerPos = container.getPos();
+        
+        synchronized (STOCK_CACHE) {
+            Map<BlockPos, ContainerStock> worldStock = STOCK_CACHE.computeIfAbsent(world, (key) -> new HashMap<>());
+            
+            // Reset the stock if the container was replaced
+            ContainerStock stock = worldStock.get( containerPos );
+            if ((stock == null) || (stock.container.get() != container))
+                worldStock.put(containerPos.toImmutable(), (stock = new ContainerStock( container )));
+            
+            Integer count;
+            if ((count = stock.counts.get( item )) == null) {
+                // Get the full inventory (Including double chests)
+                if ((inventory == null) && ((inventory = InventoryUtils.getInventoryOf( world, containerPos )) == null))
+                    inventory = container;
+                
+                stock.counts.put(item, (count = inventory.countInInv( item )));
+            }
+            
+            return count;
+        }
+    }
+    
+    /*
+     * Invalidate the stock of a container
+     */
+    public static void invalidate(@NotNull final BlockEntity blockEntity) {
+        World world;
+        if (((world = blockEntity.getWorld()) == null) || world.isClient)
+            return;
+        
+        ShopStockUtils.invalidate( world, blockEntity.getPos() );
+    }
+    public static void invalidate(@NotNull final World world, @NotNull final BlockPos blockPos) {
+        synchronized (STOCK_CACHE) {
+            Map<BlockPos, ContainerStock> worldStock;
+            if (((worldStock = STOCK_CACHE.get( world )) == null) || worldStock.isEmpty())
+                return;
+            
+            worldStock.remove( blockPos );
+            
+            // Double chests are counted from either half
+            for (Direction direction : Direction.Type.HORIZONTAL)
+                worldStock.remove(blockPos.offset( direction ));
+        }
+    }
+    
+    private static final class ContainerStock {
+        private final WeakReference<LootableContainerBlockEntity> container;
+        private final Map<Item, Integer> counts = new HashMap<>();
+        
+        private ContainerStock(@NotNull LootableContainerBlockEntity container) {
+            this.container = new WeakReference<>( container );
+        }
+    }
+    
+}
@@ -26,6 +26,9 @@
 package net.TheElm.project.utilities;
 
 import net.TheElm.project.CoreMod;
+import net.TheElm.project.ServerCore;
+import net.TheElm.project.config.SewingMachineConfig;
+import net.TheElm.project.interfaces.TickTask;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
@@ -36,22 +39,41 @@ import net.minecraft.sound.SoundEvent;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-public final class StructureBuilderUtils {
+/**
+ * Builds a structure one block per tick from the server thread.
+ * Steps are queued with destroy, build and particlesSounds, and run once
+ * the structure is started. All structures together place no more than
+ * the configured number of blocks in a tick.
+ */
+public final class StructureBuilderUtils implements TickTask {
+    
+    // Blocks placed by all structures this tick
+    private static int budgetTick = -1;
+    private static int budgetUsed = 0;
     
     private final World world;
-    private final long delay = 50L;
+    private final String structureName;
+    private final int delay = 1;
+    
+    private final Map<BlockPos, BlockState> structureBlocks = new LinkedHashMap<>();
+    private final Map<BlockPos, BlockEntity> structureEntity = new LinkedHashMap<>();
     
-    private HashMap<BlockPos, BlockState> structureBlocks = new LinkedHashMap<>();
-    private HashMap<BlockPos, BlockEntity> structureEntity = new LinkedHashMap<>();
+    private final Deque<Step> steps = new ArrayDeque<>();
+    private Runnable onComplete = null;
+    private boolean cancelled = false;
+    private int wait = 0;
     
     public StructureBuilderUtils(World world, String structureName) {
         this.world = world;
-        CoreMod.logInfo( "Building new " + structureName );
+        this.structureName = structureName;
     }
     
     public void addBlock(BlockPos blockPos, BlockState blockState) {
@@ -61,13 +83,11 @@ public final class StructureBuilderUtils {
         this.structureEntity.put( blockPos, blockEntity );
     }
     
-    public void destroy(boolean dropBlocks) throws InterruptedException {
-        for (BlockPos blockPos : this.structureBlocks.keySet()) {
-            this.world.breakBlock(blockPos, dropBlocks);
-            Thread.sleep( this.delay );
-        }
+    public void destroy(boolean dropBlocks) {
+        for (BlockPos blockPos : this.structureBlocks.keySet())
+            this.steps.addLast(new Step(() -> this.world.breakBlock(blockPos, dropBlocks), this.delay, true));
     }
-    public void build() throws InterruptedException {
+    public void build() {
         // Place all of the blocks
         for (Map.Entry<BlockPos, BlockState> blockEntry : this.structureBlocks.entrySet()) {
             BlockPos blockPos = blockEntry.getKey();
@@ -76,39 +96,108 @@ public final class StructureBuilderUtils {
             if (block.getBlock() == Blocks.AIR)
                 continue;
             
-            this.world.setBlockState( blockPos, block );
-            this.world.playSound(null, blockPos, SoundEvents.BLOCK_STONE_PLACE, SoundCategory.BLOCKS, 1.0f, 1.0f);
-            Thread.sleep( this.delay );
+            this.steps.addLast(new Step(() -> {
+                this.world.setBlockState( blockPos, block );
+                this.world.playSound(null, blockPos, SoundEvents.BLOCK_STONE_PLACE, SoundCategory.BLOCKS, 1.0f, 1.0f);
+            }, this.delay, true));
         }
         
         // Update the block entities
-        for (Map.Entry<BlockPos, BlockEntity> blockEntry : this.structureEntity.entrySet()) {
-            this.world.setBlockEntity(
-                blockEntry.getKey(),
-                blockEntry.getValue()
-            );
-        }
+        this.steps.addLast(new Step(() -> {
+            for (Map.Entry<BlockPos, BlockEntity> blockEntry : this.structureEntity.entrySet()) {
+                this.world.setBlockEntity(
+                    blockEntry.getKey(),
+                    blockEntry.getValue()
+                );
+            }
+        }, 0, false));
     }
-    public <T extends ParticleEffect> void particlesSounds(T particle, SoundEvent sound, double deltaX, double deltaY, double deltaZ, double speed, int count, BlockPos... blockPositions) throws InterruptedException {
+    public <T extends ParticleEffect> void particlesSounds(T particle, SoundEvent sound, double deltaX, double deltaY, double deltaZ, double speed, int count, BlockPos... blockPositions) {
         for (BlockPos blockPos : blockPositions) {
-            // Spawn the particles
-            ((ServerWorld) this.world).spawnParticles(
-                particle,
-                blockPos.getX() + 0.5,
-                blockPos.getY(),
-                blockPos.getZ() + 0.5,
-                count,
-                deltaX,
-                deltaY,
-                deltaZ,
-                speed
-            );
+            this.steps.addLast(new Step(() -> {
+                // Spawn the particles
+                ((ServerWorld) this.world).spawnParticles(
+                    particle,
+                    blockPos.getX() + 0.5,
+                    blockPos.getY(),
+                    blockPos.getZ() + 0.5,
+                    count,
+                    deltaX,
+                    deltaY,
+                    deltaZ,
+                    speed
+                );
+                
+                // Play the sound effect
+                this.world.playSound( null, blockPos, sound, SoundCategory.MASTER, 1.0f, 1.0f );
+            }, this.delay * 10, false));
+        }
+    }
+    
+    /**
+     * Start running the queued steps on the following ticks
+     * @param onComplete Run on the server thread once every step has run
+     */
+    public void start(@Nullable Runnable onComplete) {
+        CoreMod.logInfo( "Building new " + this.structureName );
+        this.onComplete = onComplete;
+        TickScheduler.schedule( this );
+    }
+    
+    /**
+     * Stop building, the remaining steps are not run
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+    
+    @Override
+    public boolean tick(long deadline) {
+        if (this.cancelled)
+            return true;
+        
+        while (this.wait <= 0) {
+            Step step = this.steps.peekFirst();
+            if (step == null) {
+                if (this.onComplete != null)
+                    this.onComplete.run();
+                return true;
+            }
             
-            // Play the sound effect
-            world.playSound( null, blockPos, sound, SoundCategory.MASTER, 1.0f, 1.0f );
+            // Wait for the next tick if other structures have used the budget
+            if (step.placesBlock && (!StructureBuilderUtils.takeBlockBudget()))
+                return false;
             
-            // Sleep
-            Thread.sleep(this.delay * 10);
+            this.steps.pollFirst();
+            step.action.run();
+            this.wait = step.delay;
+        }
+        
+        this.wait--;
+        return false;
+    }
+    
+    private static boolean takeBlockBudget() {
+        int tick = ServerCore.get().getTicks();
+        if (tick != StructureBuilderUtils.budgetTick) {
+            StructureBuilderUtils.budgetTick = tick;
+            StructureBuilderUtils.budgetUsed = 0;
+        }
+        if (StructureBuilderUtils.budgetUsed >= SewingMachineConfig.INSTANCE.STRUCTURE_BLOCKS_PER_TICK.get())
+            return false;
+        StructureBuilderUtils.budgetUsed++;
+        return true;
+    }
+    
+    private static final class Step {
+        private final Runnable action;
+        private final int delay;
+        private final boolean placesBlock;
+        
+        private Step(@NotNull Runnable action, int delay, boolean placesBlock) {
+            this.action = action;
+            this.delay = delay;
+            this.placesBlock = placesBlock;
         }
     }
     
@@ -0,0 +1,95 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.interfaces.TickTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs long tasks a piece at a time at the end of each server tick.
+ * Tasks share a small time budget, and take turns being run first.
+ */
+public final class TickScheduler {
+    
+    private static final long TICK_BUDGET = TimeUnit.MILLISECONDS.toNanos( 5 );
+    
+    private static final Queue<TickTask> SCHEDULED = new ConcurrentLinkedQueue<>();
+    private static final Deque<TickTask> RUNNING = new ArrayDeque<>();
+    
+    private TickScheduler() {}
+    
+    /**
+     * Run a task starting from the next tick, can be called from any thread
+     * @param task The task to run
+     */
+    public static void schedule(@NotNull TickTask task) {
+        TickScheduler.SCHEDULED.offer( task );
+    }
+    
+    /**
+     * Run the scheduled tasks, called from the server thread at the end of each tick
+     */
+    public static void tick() {
+        TickTask task;
+        while ((task = TickScheduler.SCHEDULED.poll()) != null)
+            TickScheduler.RUNNING.addLast( task );
+        
+        long deadline = System.nanoTime() + TICK_BUDGET;
+        for (int i = TickScheduler.RUNNING.size(); i > 0; i--) {
+            task = TickScheduler.RUNNING.pollFirst();
+            
+            boolean finished;
+            try {
+                finished = task.tick( deadline );
+            } catch (Exception e) {
+                // A broken task should not break the tick
+                CoreMod.logError( e );
+                TickScheduler.fail( task );
+                finished = true;
+            }
+            
+            // Tasks that are not finished go to the back
+            if (!finished)
+                TickScheduler.RUNNING.addLast( task );
+        }
+    }
+    
+    private static void fail(@NotNull TickTask task) {
+        try {
+            task.onFailed();
+        } catch (Exception e) {
+            CoreMod.logError( e );
+        }
+    }
+    
+}
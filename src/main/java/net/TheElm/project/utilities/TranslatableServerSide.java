@@ -27,6 +27,7 @@ package net.TheElm.project.utilities;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.interfaces.PlayerServerLanguage;
@@ -38,11 +39,22 @@ import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Formatting;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public final class TranslatableServerSide {
     
@@ -58,7 +70,8 @@ public final class TranslatableServerSide {
     public static Text text(ServerCommandSource source, String key, Object... objects) {
         if (source.getEntity() instanceof ServerPlayerEntity)
             return TranslatableServerSide.text( (ServerPlayerEntity)source.getEntity(), key, objects );
-        return TranslatableServerSide.text( Locale.getDefault(), key, objects );
+        Locale language = Locale.getDefault();
+        return TranslatableServerSide.text( language, TranslatableServerSide.getLanguageKey( language ), key, objects );
     }
     public static Text text(PlayerEntity player, String key, Object... objects) {
         if (!(player instanceof ServerPlayerEntity))
@@ -66,10 +79,11 @@ public final class TranslatableServerSide {
         return TranslatableServerSide.text((ServerPlayerEntity) player, key, objects);
     }
     public static Text text(ServerPlayerEntity player, String key, Object... objects) {
-        return TranslatableServerSide.text( ((PlayerServerLanguage)player).getClientLanguage(), key, objects );
+        PlayerServerLanguage language = (PlayerServerLanguage) player;
+        return TranslatableServerSide.text( language.getClientLanguage(), language.getClientLanguageKey(), key, objects );
     }
-    private static Text text(Locale language, String key, Object... objects) {
-        String text = TranslatableServerSide.getTranslation( language, key );
+    private static Text text(Locale language, String languageKey, String key, Object... objects) {
+        Template template = TranslatableServerSide.getTranslation( languageKey, key );
         
         for (int i = 0; i < objects.length; ++i) {
             Object obj = objects[i];
@@ -80,31 +94,167 @@ public final class TranslatableServerSide {
             }
         }
         
-        return TranslatableServerSide.replace( language, text, objects);
+        return template.render( language, objects );
     }
-    private static Text replace(Locale language, String text, Object... objects) {
-        if ( objects.length <= 0 )
-            return new LiteralText( text );
-        String[] separated = text.split( "((?<=%[a-z])|(?=%[a-z]))" );
+    
+    private static Template getTranslation(String languageKey, String key) {
+        // Read the tables once, so a reload can't change them part way through
+        Map<String, Map<String, Template>> translations = TranslatableServerSide.TRANSLATIONS;
         
-        // Get the formatter for numbers
-        NumberFormat formatter = NumberFormat.getInstance( language );
-        int O = 0;
+        Template value;
+        Map<String, Template> table = translations.get( languageKey );
+        if ( ((table == null) || ((value = table.get( key )) == null)) && ((value = translations.get( TranslatableServerSide.DEFAULT_LANGUAGE ).get( key )) == null) ) {
+            CoreMod.logInfo( "Missing translation key \"" + key + "\"!" );
+            return Template.EMPTY;
+        }
+        return value;
+    }
+    
+    /*
+     * Language files
+     */
+    private static final String DEFAULT_LANGUAGE = "en_us";
+    private static final String[] LANGUAGES = { DEFAULT_LANGUAGE, "en_pt", "zh_cn" };
+    private static volatile Map<String, Map<String, Template>> TRANSLATIONS = TranslatableServerSide.readLanguageFiles();
+    
+    /**
+     * Read all of the language files again and replace the loaded translations.
+     * Files in the "lang" folder of the config are read over the top of the
+     * ones that come with the mod, so they can be changed without a restart.
+     * @return The number of languages that were loaded
+     */
+    public static int reload() {
+        Map<String, Map<String, Template>> translations = TranslatableServerSide.readLanguageFiles();
+        TranslatableServerSide.TRANSLATIONS = translations;
+        return translations.size();
+    }
+    
+    private static Map<String, Map<String, Template>> readLanguageFiles() {
+        Map<String, Map<String, Template>> translations = new HashMap<>();
+        for ( String language : TranslatableServerSide.LANGUAGES ) {
+            String filePath = TranslatableServerSide.getResourcePath( language );
+            InputStream resource = CoreMod.class.getResourceAsStream( filePath );
+            Map<String, Template> table;
+            if ((resource != null) && ((table = TranslatableServerSide.readLanguageFile( filePath, resource )) != null))
+                translations.put( language, table );
+        }
         
-        Text out = null;
-        for ( String seg : separated ) {
-            // If is a variable
-            if ( matchAny( seg, "%s", "%d", "%f" ) ) {
+        // Read any overrides from the config
+        File[] overrides = new File( CoreMod.getConfDir(), "lang" ).listFiles(( dir, name ) -> name.endsWith( ".json" ));
+        if (overrides != null) {
+            for ( File file : overrides ) {
+                String language = file.getName().substring( 0, file.getName().length() - 5 ).toLowerCase();
+                try {
+                    Map<String, Template> table = TranslatableServerSide.readLanguageFile( file.getPath(), new FileInputStream( file ) );
+                    if (table != null)
+                        translations.computeIfAbsent( language, (key) -> new HashMap<>() ).putAll( table );
+                } catch (FileNotFoundException e) {
+                    CoreMod.logError( e );
+                }
+            }
+        }
+        
+        // Throw an exception
+        if (!translations.containsKey( TranslatableServerSide.DEFAULT_LANGUAGE ))
+            throw new NullPointerException("Could not read language file \"" + TranslatableServerSide.getResourcePath( TranslatableServerSide.DEFAULT_LANGUAGE ) + "\"");
+        
+        translations.replaceAll(( language, table ) -> Collections.unmodifiableMap( table ));
+        return Collections.unmodifiableMap( translations );
+    }
+    @Nullable
+    private static Map<String, Template> readLanguageFile(@NotNull String filePath, @NotNull InputStream resource) {
+        // Read the JSON language file
+        Map<String, Template> table = new HashMap<>();
+        try (InputStreamReader reader = new InputStreamReader( resource, StandardCharsets.UTF_8 )) {
+            JsonObject object = new JsonParser().parse( reader ).getAsJsonObject();
+            for ( Map.Entry<String, JsonElement> entry : object.entrySet() )
+                table.put( entry.getKey(), new Template( entry.getValue().getAsString() ) );
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            CoreMod.logError( "Could not read language file \"" + filePath + "\"", e );
+            return null;
+        }
+        
+        return table;
+    }
+    public static String getLanguageKey(Locale locale) {
+        return (locale.getLanguage() + "_" + locale.getCountry()).toLowerCase();
+    }
+    private static String getResourcePath(String language) {
+        return "/assets/" + CoreMod.MOD_ID + "/lang/" + language + ".json";
+    }
+    
+    /*
+     * Compiled translations
+     */
+    private static final class Template {
+        private static final Template EMPTY = new Template( "" );
+        
+        // The full text, used as-is when there is nothing to insert
+        private final String text;
+        
+        // Literal text, or a variable type (s, d, f) for each segment
+        private final String[] segments;
+        private final char[] variables;
+        private final boolean numeric;
+        
+        private Template(@NotNull String text) {
+            List<String> segments = new ArrayList<>();
+            StringBuilder variables = new StringBuilder();
+            
+            // Split the text around any "%" followed by a lowercase letter
+            int start = 0;
+            for (int i = 0; i < text.length() - 1; i++) {
+                char type = text.charAt( i + 1 );
+                if ((text.charAt( i ) != '%') || (type < 'a') || (type > 'z'))
+                    continue;
+                if (i > start)
+                    TranslatableServerSide.Template.addSegment( segments, variables, text.substring( start, i ), '\0' );
+                TranslatableServerSide.Template.addSegment( segments, variables, text.substring( i, i + 2 ), ((type == 's') || (type == 'd') || (type == 'f') ? type : '\0') );
+                start = (++i) + 1;
+            }
+            if ((start < text.length()) || segments.isEmpty())
+                TranslatableServerSide.Template.addSegment( segments, variables, text.substring( start ), '\0' );
+            
+            this.text = text;
+            this.segments = segments.toArray(new String[0]);
+            this.variables = variables.toString().toCharArray();
+            this.numeric = variables.indexOf( "d" ) >= 0;
+        }
+        private static void addSegment(@NotNull List<String> segments, @NotNull StringBuilder variables, @NotNull String segment, char variable) {
+            segments.add( segment );
+            variables.append( variable );
+        }
+        
+        @NotNull
+        public Text render(@NotNull Locale language, @NotNull Object... objects) {
+            if ( objects.length <= 0 )
+                return new LiteralText( this.text );
+            
+            // Get the formatter for numbers
+            NumberFormat formatter = ( this.numeric ? NumberFormat.getInstance( language ) : null );
+            int O = 0;
+            
+            Text out = null;
+            for ( int i = 0; i < this.segments.length; i++ ) {
+                char variable = this.variables[i];
+                
+                // If not a variable (Or there is nothing left to put in it)
+                if ((variable == '\0') || (O >= objects.length)) {
+                    if (out == null) out = new LiteralText( this.segments[i] );
+                    else out.append( this.segments[i] );
+                    continue;
+                }
+                
                 // Get the objects that were provided
                 Object obj = objects[ O++ ];
-                if ( ("%s".equalsIgnoreCase( seg )) && ( obj instanceof Text ) ) {
+                if ( (variable == 's') && ( obj instanceof Text ) ) {
                     // Create if null
                     if (out == null) out = new LiteralText("");
                     // Color translations
                     if (obj instanceof TranslatableText) ((Text) obj).formatted(Formatting.DARK_AQUA);
                     // Append
                     out.append( (Text)obj );
-                } else if ( ("%d".equalsIgnoreCase( seg )) && ( obj instanceof Number ) ) {
+                } else if ( (variable == 'd') && ( obj instanceof Number ) ) {
                     // Create if null
                     if (out == null) out = new LiteralText("");
                     // Append
@@ -115,52 +265,10 @@ public final class TranslatableServerSide {
                     // Append if not null
                     else out.append( obj.toString() );
                 }
-            } else {
-                // If not a variable
-                if (out == null) out = new LiteralText( seg );
-                else out.append( seg );
             }
+            
+            return (out == null ? new LiteralText( "" ) : out);
         }
-        
-        return (out == null ? new LiteralText( "" ) : out);
-    }
-    
-    private static String getTranslation(Locale language, String key) {
-        JsonObject object = TranslatableServerSide.readLanguageFile( language );
-        if ( (language != Locale.US) && (!object.has( key )) )
-            return TranslatableServerSide.getTranslation( Locale.US, key );
-        JsonElement element = object.get( key );
-        if ( element == null ) {
-            CoreMod.logInfo( "Missing translation key \"" + key + "\"!" );
-            return "";
-        }
-        return element.getAsString();
-    }
-    private static JsonObject readLanguageFile(Locale language) {
-        String filePath;
-        InputStream resource = CoreMod.class.getResourceAsStream(
-            filePath = TranslatableServerSide.getResourcePath( language )
-        );
-        if (resource == null) {
-            // If not already using English, Fallback to English
-            if (language != Locale.US)
-                return TranslatableServerSide.readLanguageFile(Locale.US);
-            // Throw an exception
-            throw new NullPointerException("Could not read language file \"" + filePath + "\"");
-        }
-        // Return the JSON language file
-        return new JsonParser().parse(new InputStreamReader( resource )).getAsJsonObject();
-    }
-    private static String getResourcePath(Locale locale) {
-        return "/assets/" + CoreMod.MOD_ID + "/lang/" + (locale.getLanguage() + "_" + locale.getCountry()).toLowerCase() + ".json";
-    }
-    
-    private static boolean matchAny(@NotNull String needle, String... haystack ) {
-        for ( String hay : haystack ) {
-            if ( needle.equalsIgnoreCase( hay ) )
-                return true;
-        }
-        return false;
     }
     
 }
@@ -0,0 +1,308 @@
+/*
+ * This software is licensed under the MIT License
+ * https://github.com/GStefanowich/MC-Server-Protection
+ *
+ * Copyright (c) 2019 Gregory Stefanowich
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.TheElm.project.utilities;
+
+import net.TheElm.project.CoreMod;
+import net.TheElm.project.ServerCore;
+import net.TheElm.project.exceptions.NbtNotFoundException;
+import net.TheElm.project.utilities.WarpUtils.Warp;
+import net.fabricmc.fabric.api.util.NbtType;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A saved index of player warps and warp invitations, so that the warps of
+ * offline players can be found without reading their player files. The first
+ * time the directory is loaded it is filled from the player files, after that
+ * players that are not in the directory have no warp.
+ */
+public final class WarpDirectory {
+    
+    private static final String DIRECTORY = "warps";
+    private static final Set<String> WARP_KEYS = new HashSet<>(Arrays.asList( "playerWarpX", "playerWarpY", "playerWarpZ", "playerWarpD" ));
+    private static final long INVITE_EXPIRE = TimeUnit.MINUTES.toMillis( 5 );
+    
+    private static volatile Map<UUID, Location> warps = null;
+    private static volatile Map<UUID, Invite> invites = null;
+    private static volatile boolean changed = false;
+    
+    private WarpDirectory() {}
+    
+    /*
+     * Warps
+     */
+    
+    /**
+     * Get the warp of a player from the directory
+     * @param owner The owner of the warp
+     * @return The warp, or null if the player has no warp
+     */
+    @Nullable
+    public static Warp getWarp(@NotNull UUID owner) {
+        Location location = WarpDirectory.getWarps().get( owner );
+        return ( location == null ? null : location.toWarp() );
+    }
+    public static void setWarp(@NotNull UUID owner, int dimension, @Nullable BlockPos warpPos) {
+        Map<UUID, Location> warps = WarpDirectory.getWarps();
+        
+        // Only players that have a warp are kept
+        if (warpPos == null) {
+            if (warps.remove( owner ) != null)
+                WarpDirectory.changed = true;
+            return;
+        }
+        
+        Location location = new Location( dimension, warpPos );
+        if (!location.equals(warps.put( owner, location )))
+            WarpDirectory.changed = true;
+    }
+    
+    /**
+     * @return All of the warps in the directory
+     */
+    @NotNull
+    public static Map<UUID, Warp> getAllWarps() {
+        Map<UUID, Warp> out = new LinkedHashMap<>();
+        WarpDirectory.getWarps().forEach((owner, location) -> {
+            Warp warp = location.toWarp();
+            if (warp != null)
+                out.put( owner, warp );
+        });
+        return out;
+    }
+    
+    /*
+     * Invitations
+     */
+    public static void invite(@NotNull UUID porter, @NotNull UUID target) {
+        WarpDirectory.getInvites().put( porter, new Invite( target, System.currentTimeMillis() ) );
+        WarpDirectory.changed = true;
+    }
+    
+    /**
+     * @param porter The player that asked to teleport
+     * @return The player that was asked, or null if there is no invite or it has expired
+     */
+    @Nullable
+    public static UUID getInvite(@NotNull UUID porter) {
+        Invite invite = WarpDirectory.getInvites().get( porter );
+        if (invite == null)
+            return null;
+        if (invite.isExpired()) {
+            WarpDirectory.removeInvite( porter );
+            return null;
+        }
+        return invite.target;
+    }
+    public static void removeInvite(@NotNull UUID porter) {
+        if (WarpDirectory.getInvites().remove( porter ) != null)
+            WarpDirectory.changed = true;
+    }
+    
+    /*
+     * Save / load
+     */
+    public static void save() {
+        if ((WarpDirectory.warps == null) || (!WarpDirectory.changed))
+            return;
+        WarpDirectory.changed = false;
+        
+        CompoundTag warpsTag = new CompoundTag();
+        WarpDirectory.warps.forEach((owner, location) -> {
+            CompoundTag locationTag = new CompoundTag();
+            locationTag.put( "pos", NbtUtils.blockPosToTag( location.warpPos ) );
+            locationTag.putInt( "dimension", location.dimension );
+            warpsTag.put( owner.toString(), locationTag );
+        });
+        
+        CompoundTag invitesTag = new CompoundTag();
+        WarpDirectory.invites.forEach((porter, invite) -> {
+            if (invite.isExpired())
+                return;
+            CompoundTag inviteTag = new CompoundTag();
+            inviteTag.putUuid( "target", invite.target );
+            inviteTag.putLong( "created", invite.createdAt );
+            invitesTag.put( porter.toString(), inviteTag );
+        });
+        
+        CompoundTag tag = new CompoundTag();
+        tag.putBoolean( "indexed", true );
+        tag.put( "warps", warpsTag );
+        tag.put( "invites", invitesTag );
+        
+        if (!NbtUtils.writeModData( DIRECTORY, tag ))
+            WarpDirectory.changed = true;
+    }
+    private static synchronized void load() {
+        if (WarpDirectory.warps != null)
+            return;
+        
+        Map<UUID, Location> warps = new ConcurrentHashMap<>();
+        Map<UUID, Invite> invites = new ConcurrentHashMap<>();
+        
+        CompoundTag tag = NbtUtils.readModData( DIRECTORY );
+        CompoundTag warpsTag = tag.getCompound( "warps" );
+        for (String key : warpsTag.getKeys()) {
+            try {
+                CompoundTag locationTag = warpsTag.getCompound( key );
+                if (locationTag.contains( "pos", NbtType.COMPOUND ))
+                    warps.put( UUID.fromString( key ), new Location( locationTag.getInt( "dimension" ), NbtUtils.tagToBlockPos( locationTag.getCompound( "pos" ) ) ));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        
+        // Fill the directory from the player files the first time it is loaded
+        if (!tag.getBoolean( "indexed" )) {
+            WarpDirectory.readOfflineWarps( warps );
+            WarpDirectory.changed = true;
+        }
+        
+        // Invites from before they expired have no time, and are dropped
+        CompoundTag invitesTag = tag.getCompound( "invites" );
+        for (String key : invitesTag.getKeys()) {
+            try {
+                CompoundTag inviteTag = invitesTag.getCompound( key );
+                if (!inviteTag.containsUuid( "target" ))
+                    continue;
+                Invite invite = new Invite( inviteTag.getUuid( "target" ), inviteTag.getLong( "created" ) );
+                if (!invite.isExpired())
+                    invites.put( UUID.fromString( key ), invite );
+            } catch (IllegalArgumentException ignored) {}
+        }
+        
+        WarpDirectory.invites = invites;
+        WarpDirectory.warps = warps;
+    }
+    private static Map<UUID, Location> getWarps() {
+        WarpDirectory.load();
+        return WarpDirectory.warps;
+    }
+    private static Map<UUID, Invite> getInvites() {
+        WarpDirectory.load();
+        return WarpDirectory.invites;
+    }
+    
+    private static void readOfflineWarps(@NotNull Map<UUID, Location> warps) {
+        File[] files = new File( NbtUtils.worldFolder(), "playerdata" ).listFiles(( dir, name ) -> name.endsWith( ".dat" ));
+        if (files == null)
+            return;
+        
+        CoreMod.logInfo( "Indexing the warps of " + files.length + " players" );
+        for (File file : files) {
+            UUID owner;
+            try {
+                owner = UUID.fromString( file.getName().substring( 0, file.getName().length() - 4 ) );
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            
+            // Online players have already been added
+            Location location;
+            if ((!warps.containsKey( owner )) && ((location = WarpDirectory.readOfflineWarp( owner )) != null))
+                warps.put( owner, location );
+        }
+    }
+    @Nullable
+    private static Location readOfflineWarp(@NotNull UUID owner) {
+        try {
+            // Read the player warp location from their file
+            return OfflinePlayerUtils.read(owner, WARP_KEYS, (playerNBT) -> {
+                if (!(playerNBT.contains("playerWarpX") && playerNBT.contains("playerWarpY") && playerNBT.contains("playerWarpZ")))
+                    return null;
+                return new Location(
+                    (playerNBT.contains("playerWarpD") ? playerNBT.getInt("playerWarpD") : 0),
+                    new BlockPos(
+                        playerNBT.getInt("playerWarpX"),
+                        playerNBT.getInt("playerWarpY"),
+                        playerNBT.getInt("playerWarpZ")
+                    )
+                );
+            });
+        } catch (NbtNotFoundException e) {
+            return null;
+        }
+    }
+    
+    private static final class Location {
+        private final int dimension;
+        private final BlockPos warpPos;
+        
+        private Location(int dimension, @NotNull BlockPos warpPos) {
+            this.dimension = dimension;
+            this.warpPos = warpPos;
+        }
+        
+        @Nullable
+        private Warp toWarp() {
+            DimensionType dimension;
+            if ((dimension = DimensionType.byRawId( this.dimension )) == null)
+                return null;
+            MinecraftServer server = ServerCore.get();
+            return new Warp( server.getWorld( dimension ), this.warpPos );
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Location))
+                return false;
+            Location other = (Location) obj;
+            return (this.dimension == other.dimension) && Objects.equals( this.warpPos, other.warpPos );
+        }
+        @Override
+        public int hashCode() {
+            return Objects.hash( this.dimension, this.warpPos );
+        }
+    }
+    
+    private static final class Invite {
+        private final UUID target;
+        private final long createdAt;
+        
+        private Invite(@NotNull UUID target, long createdAt) {
+            this.target = target;
+            this.createdAt = createdAt;
+        }
+        
+        private boolean isExpired() {
+            return System.currentTimeMillis() - this.createdAt > INVITE_EXPIRE;
+        }
+    }
+    
+}
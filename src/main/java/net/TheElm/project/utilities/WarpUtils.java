@@ -28,9 +28,9 @@ package net.TheElm.project.utilities;
 import net.TheElm.project.CoreMod;
 import net.TheElm.project.ServerCore;
 import net.TheElm.project.config.SewingMachineConfig;
-import net.TheElm.project.exceptions.NbtNotFoundException;
 import net.TheElm.project.interfaces.IClaimedChunk;
 import net.TheElm.project.interfaces.PlayerData;
+import net.TheElm.project.interfaces.TickTask;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.Material;
@@ -38,7 +38,6 @@ import net.minecraft.block.MushroomBlock;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.block.entity.CommandBlockBlockEntity;
 import net.minecraft.entity.Entity;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.command.ServerCommandSource;
@@ -52,6 +51,7 @@ import net.minecraft.util.Pair;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Direction;
+import net.minecraft.world.Heightmap;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.dimension.DimensionType;
@@ -60,20 +60,36 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public final class WarpUtils {
     
     private static final Set<UUID> warpPlayers = Collections.synchronizedSet(new HashSet<>());
+    private static final ChunkTicketType<ChunkPos> WARP_SEARCH = ChunkTicketType.create( "sewing_warp_search", Comparator.comparingLong(ChunkPos::toLong) );
+    private static final ChunkTicketType<ChunkPos> TELEPORT_PREFETCH = ChunkTicketType.create( "sewing_teleport", Comparator.comparingLong(ChunkPos::toLong) );
     
+    // Teleports waiting on chunks, only used from the server thread
+    private static final Map<DimensionType, Map<ChunkPos, ChunkPrefetch>> PREFETCHING = new HashMap<>();
+    private static final Map<UUID, ChunkPrefetch> TELEPORTING = new HashMap<>();
+    
+    private final BlockPos origin;
     private BlockPos createWarpAt;
     private Pair<BlockPos, BlockPos> region;
     
+    // Random positions tried, across every search for this warp
+    private int searchAttempts = 0;
+    
     public WarpUtils(final ServerPlayerEntity player, final BlockPos pos) {
         warpPlayers.add( player.getUuid() );
+        this.origin = pos;
         this.updateWarpPos( pos );
     }
     
@@ -85,15 +101,15 @@ public final class WarpUtils {
         );
     }
     
-    public BlockPos getWarpPositionIn(final World world) {
-        int x = this.createWarpAt.getX();
-        int z = this.createWarpAt.getZ();
-        do {
-            CoreMod.logInfo( "Finding a new warp position!" );
-            this.updateWarpPos( new BlockPos( getRandom( x ), 256, getRandom( z ) ) );
-        } while ((this.createWarpAt = this.isValid( world, this.createWarpAt,50,true ) ) == null);
-        
-        return this.createWarpAt;
+    /**
+     * Search for a new warp position over the following ticks.
+     * Searching again continues from the attempts of the last search.
+     * @param player The player the warp is for
+     * @param world The world to search in
+     * @param callback Receives the warp position on the server thread, or null if none was found
+     */
+    public void findWarpPositionIn(@NotNull final ServerPlayerEntity player, @NotNull final ServerWorld world, @NotNull final Consumer<BlockPos> callback) {
+        TickScheduler.schedule(new SiteSearch( this, player, world, callback ));
     }
     public BlockPos getSafeTeleportPos(final World world) {
         BlockPos tpPos;
@@ -134,11 +150,7 @@ public final class WarpUtils {
         return ( 16 * Math.round(random >> 4) ) + 8;
     }
     
-    private BlockPos isValid(final World world, final BlockPos startingPos, final int minY, final boolean mustBeUnowned) {
-        // If the chunks are claimed.
-        if (mustBeUnowned && IClaimedChunk.isOwnedAround( world, this.createWarpAt, 5 ))
-            return null;
-        
+    private BlockPos isValid(final World world, final BlockPos startingPos, final int minY, final boolean isWarpSite) {
         BlockPos pos = startingPos;
         BlockState blockState;
         do {
@@ -147,7 +159,7 @@ public final class WarpUtils {
             
             pos = pos.down();
             blockState = world.getBlockState( pos );
-        } while ( blockState.isAir() || blockState.getMaterial().isReplaceable() || ( mustBeUnowned && ( blockState.getMaterial() == Material.SNOW || blockState.getMaterial() == Material.PLANT )));
+        } while ( blockState.isAir() || blockState.getMaterial().isReplaceable() || ( isWarpSite && ( blockState.getMaterial() == Material.SNOW || blockState.getMaterial() == Material.PLANT )));
         
         Material material = blockState.getMaterial();
         
@@ -158,13 +170,13 @@ public final class WarpUtils {
             && ( material != Material.LEAVES )
             && ( material != Material.ICE )
             && ( material != Material.PACKED_ICE )
-            && ( mustBeUnowned || world.getBlockState( pos.up() ).isAir() ) ? pos : null;
+            && ( isWarpSite || world.getBlockState( pos.up() ).isAir() ) ? pos : null;
     }
     
-    public boolean build(final ServerPlayerEntity player, final World world) {
-        return this.build(player, world, true);
+    public boolean build(final ServerPlayerEntity player, final World world, @Nullable final Runnable onBuilt) {
+        return this.build(player, world, true, onBuilt);
     }
-    public boolean build(final ServerPlayerEntity player, final World world, final boolean dropBlocks) {
+    public boolean build(final ServerPlayerEntity player, final World world, final boolean dropBlocks, @Nullable final Runnable onBuilt) {
         // Get the area of blocks to claim
         if (!ChunkUtils.canPlayerClaimSlices( player.getServerWorld(), this.region.getLeft(), this.region.getRight() ))
             return false;
@@ -255,18 +267,16 @@ public final class WarpUtils {
             structure.addBlock( blockPos, plate );
         }
         
-        try {
-            structure.destroy( dropBlocks );
-            structure.build();
-            structure.particlesSounds(ParticleTypes.HAPPY_VILLAGER, SoundEvents.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f, 1.0f, 1.0f, 12,
-                new BlockPos( this.createWarpAt.getX() - 1, this.createWarpAt.getY() + 3, this.createWarpAt.getZ() - 1 ),
-                new BlockPos( this.createWarpAt.getX() + 1, this.createWarpAt.getY() + 2, this.createWarpAt.getZ() + 1 ),
-                new BlockPos( this.createWarpAt.getX() + 1, this.createWarpAt.getY() + 2, this.createWarpAt.getZ() - 1 ),
-                new BlockPos( this.createWarpAt.getX() - 1, this.createWarpAt.getY() + 1, this.createWarpAt.getZ() + 1 )
-            );
-        } catch (InterruptedException e) {
-            throw new RuntimeException( e );
-        }
+        // Build over the following ticks
+        structure.destroy( dropBlocks );
+        structure.build();
+        structure.particlesSounds(ParticleTypes.HAPPY_VILLAGER, SoundEvents.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f, 1.0f, 1.0f, 12,
+            new BlockPos( this.createWarpAt.getX() - 1, this.createWarpAt.getY() + 3, this.createWarpAt.getZ() - 1 ),
+            new BlockPos( this.createWarpAt.getX() + 1, this.createWarpAt.getY() + 2, this.createWarpAt.getZ() + 1 ),
+            new BlockPos( this.createWarpAt.getX() + 1, this.createWarpAt.getY() + 2, this.createWarpAt.getZ() - 1 ),
+            new BlockPos( this.createWarpAt.getX() - 1, this.createWarpAt.getY() + 1, this.createWarpAt.getZ() + 1 )
+        );
+        structure.start( onBuilt );
         
         return true;
     }
@@ -297,28 +307,8 @@ public final class WarpUtils {
         if ((player = server.getPlayerManager().getPlayer( uuid )) != null)
             return WarpUtils.getWarp( player );
         
-        Warp warp = null;
-        try {
-            // Read from the NBT file
-            CompoundTag playerNBT;
-            if ((playerNBT = NbtUtils.readOfflinePlayerData(uuid)) == null)
-                return null;
-            
-            // Read the player warp location after restarting
-            if (playerNBT.contains("playerWarpX") && playerNBT.contains("playerWarpY") && playerNBT.contains("playerWarpZ")) {
-                int warpDimension = (playerNBT.contains("playerWarpD") ? playerNBT.getInt("playerWarpD") : 0);
-                warp = new Warp(
-                    server.getWorld(DimensionType.byRawId(warpDimension)),
-                    new BlockPos(
-                        playerNBT.getInt("playerWarpX"),
-                        playerNBT.getInt("playerWarpY"),
-                        playerNBT.getInt("playerWarpZ")
-                    )
-                );
-            }
-        } catch (NbtNotFoundException ignored) {}
-        
-        return warp;
+        // Read from the directory
+        return WarpDirectory.getWarp( uuid );
     }
     @Nullable
     public static Warp getWarp(final ServerPlayerEntity player) {
@@ -349,10 +339,42 @@ public final class WarpUtils {
         WarpUtils.teleportPlayer( warp.world, player, warp.warpPos );
     }
     public static void teleportPlayer(@NotNull final World world, @NotNull final ServerPlayerEntity player, @NotNull final BlockPos tpPos) {
+        MinecraftServer server = player.getServer();
+        if ((server != null) && (!server.isOnThread())) {
+            server.execute(() -> WarpUtils.teleportPlayer( world, player, tpPos ));
+            return;
+        }
+        
+        // Get the chunks
+        ChunkPos chunkPos = new ChunkPos( tpPos );
+        
+        // Replace any teleport that is still waiting on chunks
+        ChunkPrefetch waiting = TELEPORTING.remove( player.getUuid() );
+        if (waiting != null)
+            waiting.porters.remove( player.getUuid() );
+        
+        // Move right away if the chunk is already loaded
+        if ((!(world instanceof ServerWorld)) || world.isChunkLoaded( chunkPos.x, chunkPos.z )) {
+            WarpUtils.moveTo( world, player, tpPos );
+            return;
+        }
+        
+        // Share the chunk load with other players going to the same chunk
+        Map<ChunkPos, ChunkPrefetch> chunks = PREFETCHING.computeIfAbsent( world.dimension.getType(), (dimension) -> new HashMap<>() );
+        ChunkPrefetch prefetch = chunks.get( chunkPos );
+        if (prefetch == null) {
+            chunks.put( chunkPos, prefetch = new ChunkPrefetch( (ServerWorld) world, chunkPos ) );
+            TickScheduler.schedule( prefetch );
+        }
+        
+        prefetch.porters.put( player.getUuid(), tpPos );
+        TELEPORTING.put( player.getUuid(), prefetch );
+    }
+    private static void moveTo(@NotNull final World world, @NotNull final ServerPlayerEntity player, @NotNull final BlockPos tpPos) {
         // Get the chunks
         ChunkPos chunkPos = new ChunkPos( tpPos );
         
-        // Load the chunk getting teleported to
+        // Load the chunk getting teleported to (If the prefetch timed out)
         if (!world.isChunkLoaded( chunkPos.x, chunkPos.z ))
             world.getChunk( chunkPos.x, chunkPos.z, ChunkStatus.FULL, true );
         
@@ -397,11 +419,204 @@ public final class WarpUtils {
         return new BlockPos( properties.getSpawnX(), properties.getSpawnY(), properties.getSpawnZ() );
     }
     
+    /*
+     * Search for a warp position a little at a time
+     */
+    private static final class SiteSearch implements TickTask {
+        private static final int CHUNK_TIMEOUT = 600;
+        private static final int CLAIM_RADIUS = 5;
+        
+        private final WarpUtils warp;
+        private final ServerPlayerEntity player;
+        private final ServerWorld world;
+        private final Consumer<BlockPos> callback;
+        
+        private final int originX;
+        private final int originZ;
+        private final int maxAttempts;
+        
+        // The chunks being held loaded
+        private ChunkPos chunkPos = null;
+        private int radius = 0;
+        private int waited = 0;
+        private BlockPos surface = null;
+        
+        private SiteSearch(@NotNull final WarpUtils warp, @NotNull final ServerPlayerEntity player, @NotNull final ServerWorld world, @NotNull final Consumer<BlockPos> callback) {
+            this.warp = warp;
+            this.player = player;
+            this.world = world;
+            this.callback = callback;
+            
+            this.originX = warp.origin.getX();
+            this.originZ = warp.origin.getZ();
+            this.maxAttempts = SewingMachineConfig.INSTANCE.WARP_SEARCH_ATTEMPTS.get();
+        }
+        
+        @Override
+        public boolean tick(long deadline) {
+            // Stop searching if the player leaves
+            if (this.player.removed) {
+                this.release();
+                warpPlayers.remove( this.player.getUuid() );
+                return true;
+            }
+            
+            do {
+                // Pick a new random position and start loading it
+                if (this.chunkPos == null) {
+                    if (this.warp.searchAttempts >= this.maxAttempts) {
+                        warpPlayers.remove( this.player.getUuid() );
+                        TranslatableServerSide.send( this.player, "warp.random.failed" );
+                        this.callback.accept( null );
+                        return true;
+                    }
+                    if ((++this.warp.searchAttempts % 10) == 0)
+                        TranslatableServerSide.send( this.player, "warp.random.progress", this.warp.searchAttempts );
+                    
+                    this.warp.updateWarpPos(new BlockPos( getRandom( this.originX ), 256, getRandom( this.originZ ) ));
+                    this.surface = null;
+                    this.hold(new ChunkPos( this.warp.createWarpAt ), 0);
+                }
+                
+                // Wait for the chunks to finish loading
+                if (!this.isLoaded()) {
+                    if (++this.waited < CHUNK_TIMEOUT)
+                        return false;
+                    this.release();
+                    continue;
+                }
+                
+                if (this.surface == null) {
+                    // Find the surface using the heightmap, then check the block there
+                    BlockPos pos = this.warp.createWarpAt;
+                    int top = this.world.getChunk( this.chunkPos.x, this.chunkPos.z )
+                        .sampleHeightmap( Heightmap.Type.MOTION_BLOCKING, pos.getX() & 15, pos.getZ() & 15 );
+                    
+                    if ((this.surface = this.warp.isValid( this.world, new BlockPos( pos.getX(), top + 1, pos.getZ() ), 50, true )) == null) {
+                        this.release();
+                        continue;
+                    }
+                    
+                    // Load the surrounding chunks to check for claims
+                    this.hold(this.chunkPos, CLAIM_RADIUS);
+                } else {
+                    BlockPos found = this.surface;
+                    boolean owned = IClaimedChunk.isOwnedAround( this.world, found, CLAIM_RADIUS );
+                    this.release();
+                    if (!owned) {
+                        this.warp.updateWarpPos( found );
+                        this.callback.accept( found );
+                        return true;
+                    }
+                }
+            } while (System.nanoTime() < deadline);
+            
+            return false;
+        }
+        
+        @Override
+        public void onFailed() {
+            // Don't leave chunks held or the player stuck searching
+            this.release();
+            warpPlayers.remove( this.player.getUuid() );
+            if (!this.player.removed)
+                TranslatableServerSide.send( this.player, "warp.random.failed" );
+        }
+        
+        private boolean isLoaded() {
+            for (int x = this.chunkPos.x - this.radius; x <= this.chunkPos.x + this.radius; x++) {
+                for (int z = this.chunkPos.z - this.radius; z <= this.chunkPos.z + this.radius; z++) {
+                    if (!this.world.isChunkLoaded( x, z ))
+                        return false;
+                }
+            }
+            return true;
+        }
+        private void hold(@NotNull ChunkPos chunkPos, int radius) {
+            this.release();
+            this.chunkPos = chunkPos;
+            this.radius = radius;
+            this.waited = 0;
+            
+            // Load each chunk without ticking it (Level 33), a ticket with a radius would tick the chunks around the center
+            for (int x = chunkPos.x - radius; x <= chunkPos.x + radius; x++) {
+                for (int z = chunkPos.z - radius; z <= chunkPos.z + radius; z++) {
+                    ChunkPos pos = new ChunkPos( x, z );
+                    this.world.getChunkManager().addTicket( WARP_SEARCH, pos, 0, pos );
+                }
+            }
+        }
+        private void release() {
+            if (this.chunkPos != null) {
+                for (int x = this.chunkPos.x - this.radius; x <= this.chunkPos.x + this.radius; x++) {
+                    for (int z = this.chunkPos.z - this.radius; z <= this.chunkPos.z + this.radius; z++) {
+                        ChunkPos pos = new ChunkPos( x, z );
+                        this.world.getChunkManager().removeTicket( WARP_SEARCH, pos, 0, pos );
+                    }
+                }
+            }
+            this.chunkPos = null;
+        }
+    }
+    
+    /*
+     * Load the chunks for a teleport before moving players
+     */
+    private static final class ChunkPrefetch implements TickTask {
+        private static final int CHUNK_TIMEOUT = 100;
+        
+        private final ServerWorld world;
+        private final ChunkPos chunkPos;
+        private final Map<UUID, BlockPos> porters = new LinkedHashMap<>();
+        private int waited = 0;
+        
+        private ChunkPrefetch(@NotNull final ServerWorld world, @NotNull final ChunkPos chunkPos) {
+            this.world = world;
+            this.chunkPos = chunkPos;
+            this.world.getChunkManager().addTicket( TELEPORT_PREFETCH, chunkPos, 1, chunkPos );
+        }
+        
+        @Override
+        public boolean tick(long deadline) {
+            // Wait for the chunk to load, or give up and load it directly
+            if ((!this.porters.isEmpty()) && (!this.world.isChunkLoaded( this.chunkPos.x, this.chunkPos.z )) && (++this.waited < CHUNK_TIMEOUT))
+                return false;
+            
+            // Stop sharing this load with new teleports
+            Map<ChunkPos, ChunkPrefetch> chunks = PREFETCHING.get( this.world.dimension.getType() );
+            if (chunks != null)
+                chunks.remove( this.chunkPos, this );
+            
+            for (Map.Entry<UUID, BlockPos> entry : this.porters.entrySet()) {
+                TELEPORTING.remove( entry.getKey(), this );
+                
+                // Get the current entity, the player may have respawned while waiting
+                ServerPlayerEntity player = ServerCore.get().getPlayerManager().getPlayer( entry.getKey() );
+                if (player != null)
+                    WarpUtils.moveTo( this.world, player, entry.getValue() );
+            }
+            
+            this.world.getChunkManager().removeTicket( TELEPORT_PREFETCH, this.chunkPos, 1, this.chunkPos );
+            return true;
+        }
+        
+        @Override
+        public void onFailed() {
+            Map<ChunkPos, ChunkPrefetch> chunks = PREFETCHING.get( this.world.dimension.getType() );
+            if (chunks != null)
+                chunks.remove( this.chunkPos, this );
+            for (UUID uuid : this.porters.keySet())
+                TELEPORTING.remove( uuid, this );
+            
+            this.world.getChunkManager().removeTicket( TELEPORT_PREFETCH, this.chunkPos, 1, this.chunkPos );
+        }
+    }
+    
     public static class Warp {
         public final BlockPos warpPos;
         public final World world;
         
-        private Warp(World world, BlockPos blockPos) {
+        Warp(World world, BlockPos blockPos) {
             this.warpPos = blockPos;
             this.world = world;
         }